@@ -0,0 +1,157 @@
+package pw.knx.feather.tessellate;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what it costs to fill a Tessellator with a frame's worth of textured, colored quads and get it ready
+ * to be pointed at, through the Basic Tessellator and through the Direct Tessellator.
+ * <p>
+ * The Basic Tessellator writes each vertex into its raw array and then copies the whole array into its direct
+ * buffer (see BasicTess.stage(), which bind() starts with). The Direct Tessellator writes each vertex into native
+ * memory once, and has nothing to copy. Neither needs an OpenGL context to get this far, so none is created, and
+ * the cost of the draw call itself (the same for both) is left out.
+ * <p>
+ * Each Tessellator is filled four ways: one vertex at a time, one quad at a time through addQuad(), all at once from
+ * packed vertices through addVertices(), and all at once from packed quads through addQuads().
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 09:40
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TessellatorBenchmark {
+
+	/**
+	 * The number of quads filled per frame
+	 */
+	@Param({"1024", "16384"})
+	public int quads;
+
+	private BasicTess basic;
+	private DirectTess direct;
+
+	/**
+	 * The frame's quads packed for addVertices(), and packed for addQuads()
+	 */
+	private int[] packed;
+	private FloatBuffer packedQuads;
+	private IntBuffer packedColors;
+
+	@Setup
+	public void setup() {
+		basic = new BasicTess(quads * 4);
+		direct = new DirectTess(quads * 4, VertexFormat.DEFAULT);
+
+		packed = new int[quads * 4 * 6];
+		packedQuads = ByteBuffer.allocateDirect(quads * 8 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		packedColors = ByteBuffer.allocateDirect(quads * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+		for (int quad = 0; quad < quads; quad++) {
+			final float x = quad & 127, y = quad >> 7;
+			final int color = 0xFF00FFFF - quad;
+			vertex(quad * 4, x, y, color, 0, 0);
+			vertex(quad * 4 + 1, x, y + 1, color, 0, 1);
+			vertex(quad * 4 + 2, x + 1, y + 1, color, 1, 1);
+			vertex(quad * 4 + 3, x + 1, y, color, 1, 0);
+			packedQuads.put(x).put(y).put(x + 1).put(y + 1).put(0).put(0).put(1).put(1);
+			packedColors.put(color);
+		}
+		packedQuads.flip();
+		packedColors.flip();
+	}
+
+	private void vertex(int vertex, float x, float y, int color, float u, float v) {
+		final int dex = vertex * 6;
+		packed[dex] = Float.floatToRawIntBits(x);
+		packed[dex + 1] = Float.floatToRawIntBits(y);
+		packed[dex + 2] = Float.floatToRawIntBits(0);
+		packed[dex + 3] = color;
+		packed[dex + 4] = Float.floatToRawIntBits(u);
+		packed[dex + 5] = Float.floatToRawIntBits(v);
+	}
+
+	@Benchmark
+	public Tessellator basicVertices() {
+		vertices(basic).stage();
+		return basic.reset();
+	}
+
+	@Benchmark
+	public Tessellator directVertices() {
+		return vertices(direct).reset();
+	}
+
+	@Benchmark
+	public Tessellator basicQuads() {
+		quads(basic).stage();
+		return basic.reset();
+	}
+
+	@Benchmark
+	public Tessellator directQuads() {
+		return quads(direct).reset();
+	}
+
+	@Benchmark
+	public Tessellator basicPacked() {
+		basic.addVertices(packed, 0, quads * 4);
+		basic.stage();
+		return basic.reset();
+	}
+
+	@Benchmark
+	public Tessellator directPacked() {
+		return direct.addVertices(packed, 0, quads * 4).reset();
+	}
+
+	@Benchmark
+	public Tessellator basicBuffered() {
+		packedQuads.rewind();
+		packedColors.rewind();
+		basic.addQuads(packedQuads, packedColors);
+		basic.stage();
+		return basic.reset();
+	}
+
+	@Benchmark
+	public Tessellator directBuffered() {
+		packedQuads.rewind();
+		packedColors.rewind();
+		return direct.addQuads(packedQuads, packedColors).reset();
+	}
+
+	/**
+	 * Fills the Tessellator one vertex at a time, as Feather always has.
+	 */
+	private <T extends Tessellator> T vertices(T tess) {
+		for (int quad = 0; quad < quads; quad++) {
+			final float x = quad & 127, y = quad >> 7;
+			tess.setColor(0xFF00FFFF - quad);
+			tess.setTexture(0, 0).addVertex(x, y, 0);
+			tess.setTexture(0, 1).addVertex(x, y + 1, 0);
+			tess.setTexture(1, 1).addVertex(x + 1, y + 1, 0);
+			tess.setTexture(1, 0).addVertex(x + 1, y, 0);
+		}
+		return tess;
+	}
+
+	/**
+	 * Fills the Tessellator one quad at a time.
+	 */
+	private <T extends Tessellator> T quads(T tess) {
+		for (int quad = 0; quad < quads; quad++) {
+			final float x = quad & 127, y = quad >> 7;
+			tess.addQuad(x, y, x + 1, y + 1, 0, 0, 1, 1, 0xFF00FFFF - quad);
+		}
+		return tess;
+	}
+}
@@ -1,20 +1,41 @@
 package pw.knx.feather;
 
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
 import pw.knx.feather.animate.Animator;
 import pw.knx.feather.font.FontCache;
 import pw.knx.feather.font.FontGlyph;
 import pw.knx.feather.font.GlyphLayout;
+import pw.knx.feather.structures.Matrix;
+import pw.knx.feather.structures.Shading;
+import pw.knx.feather.structures.TripleBuffer;
+import pw.knx.feather.structures.VBO;
+import pw.knx.feather.tessellate.FrameBatch;
+import pw.knx.feather.tessellate.InstanceBatch;
 import pw.knx.feather.tessellate.Tessellator;
+import pw.knx.feather.tessellate.VertexFormat;
+import pw.knx.feather.tessellate.VertexBuilder;
 import pw.knx.feather.texture.Texture;
 
 import java.awt.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
 
 import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.*;
 import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.*;
 
 /**
  * The central class of the Feather library.
@@ -37,31 +58,244 @@ public enum Feather {
 	FEATHER;
 
 	/**
-	 * The simple Feather Tessellator we've designated to render our glyphs.
+	 * The current transformation, applied on the CPU to everything drawn through Feather
 	 */
-	private final Tessellator tess = Tessellator.createExpanding(4 * 4, 1, 2);
+	private final Matrix matrix = new Matrix();
 
-	private final Map<Font, FontCache> fonts = new HashMap<>();
+	/**
+	 * The transformations saved by pushMatrix(), and how many of them there are
+	 */
+	private Matrix[] matrices = new Matrix[0];
+	private int depth;
+
+	/**
+	 * The simple Feather Tessellator we've designated to render our glyphs, transforming them by our Matrix.
+	 * It lives as long as Feather does, so its native memory is never freed, but it shrinks back down after a huge frame.
+	 */
+	private final Tessellator tess = Tessellator.createExpanding(4 * 4, 1, 2, 600).setTransform(matrix);
+
+	/**
+	 * Another Tessellator for our glyphs and sprites, in half the memory, for whenever every corner lies on a whole pixel.
+	 * Stores positions as shorts (see VertexFormat.COMPACT_2D), so it's null where the context can't read its half floats.
+	 */
+	private Tessellator compact;
+
+	private final Map<Font, FontCache> fonts = new HashMap<>(), distanceFonts = new HashMap<>();
 	private FontCache currentFont;
 
+	/**
+	 * The directory every FontCache we create restores its snapshot from, or null for none
+	 */
+	private Path snapshots;
+
 	/**
 	 * Our stored global Animator instance.
 	 */
 	private final Animator animator = new Animator();
 
+	/**
+	 * Our Frame Batch, queuing everything drawn between begin() and end()
+	 */
+	private final FrameBatch batch = new FrameBatch();
+
+	/**
+	 * Whether we're between begin() and end()
+	 */
+	private boolean batching;
+
+	/**
+	 * The color of everything queued while batching
+	 */
+	private int color = 0xFFFFFFFF;
+
+	/**
+	 * Whether everything queued while batching is fully opaque
+	 */
+	private boolean opaque;
+
+	/**
+	 * How our Frame Batch keeps paint order.
+	 * ORDERED reorders quads only where they don't overlap, and draws everything with depth testing off.
+	 * DEPTH gives every quad its own depth, draws opaque quads front-to-back grouped freely by texture with
+	 * depth testing on, and draws translucent quads in order afterwards. The framebuffer needs a depth buffer.
+	 */
+	public enum RenderMode {
+		ORDERED, DEPTH
+	}
+
+	/**
+	 * How our Frame Batch keeps paint order
+	 */
+	private RenderMode mode = RenderMode.ORDERED;
+
+	/**
+	 * The frames recorded by a producer thread, on their way to the OpenGL thread
+	 */
+	private final TripleBuffer<VertexBuilder> frames = new TripleBuffer<>(VertexBuilder::new);
+
+	/**
+	 * OpenGL work submitted from any thread, waiting for the OpenGL thread to run it
+	 */
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * How long, in nanoseconds, runTasks() may keep running tasks each frame
+	 */
+	private volatile long taskBudget = 2_000_000;
+
+	/**
+	 * The rendering pipelines Feather can draw through.
+	 * LEGACY draws through the fixed-function pipeline and client arrays, as Feather always has.
+	 * CORE draws through generic vertex attributes and Feather's built-in shader programs, as core profile contexts require.
+	 */
+	public enum Backend {
+		LEGACY, CORE
+	}
+
+	/**
+	 * The pipeline we're drawing through, chosen by init()
+	 */
+	private Backend backend = Backend.LEGACY;
+
+	/**
+	 * The vertex array object every Tessellator draws through on the core backend, where one must always be bound
+	 */
+	private int vao;
+
+	/**
+	 * Whether the context has vertex array objects at all (OpenGL 3.0 or ARB_vertex_array_object)
+	 */
+	private boolean vertexArrays;
+
+	/*
+	 * Shadowed State - a copy of the OpenGL state we manage, so calls that change nothing can be skipped.
+	 */
+
+	/**
+	 * Marks a shadowed state as unknown, so the next call setting it is always issued
+	 */
+	private static final int UNKNOWN = -1;
+
+	/**
+	 * Every attribute location guaranteed to exist, which is every one we might have to disable when unknown
+	 */
+	private static final int ALL_ATTRIBUTES = 0xFFFF;
+
+	/**
+	 * The texture bound to each texture unit
+	 */
+	private final int[] textures = new int[32];
+
+	/**
+	 * The active texture unit, bound buffers, active program, bound vertex array object, and blending state
+	 */
+	private int activeUnit, arrayBuffer, elementBuffer, program, vertexArray, blend = GL_FALSE, blendSrc = GL_ONE, blendDst = GL_ZERO;
+
+	/**
+	 * Whether distance field shading is on (see setDistanceField()), as GL_TRUE or GL_FALSE
+	 */
+	private int distanceField = GL_FALSE;
+
+	/**
+	 * On the legacy backend, whether we've taken over the alpha test for distance field shading, and if so, the
+	 * host's alpha test we took over: whether it was enabled, its function, and its reference value
+	 */
+	private boolean alphaSaved, alphaEnabled;
+	private int alphaFunc;
+	private float alphaRef;
+
+	/**
+	 * The textures holding distance fields rather than plain images, one bit per OpenGL ID
+	 */
+	private final BitSet fields = new BitSet();
+
+	/**
+	 * The client state arrays we know the state of, and which of those are enabled, one bit each (see clientBit())
+	 */
+	private int clientKnown = 0xF, clientStates;
+
+	/**
+	 * The attribute arrays currently enabled within our vertex array object, one bit per location
+	 */
+	private int attributes;
+
+	/**
+	 * The number of state changes skipped, and the number actually passed along to OpenGL
+	 */
+	private long skipped, issued;
+
+	/**
+	 * The projection matrix our built-in shader programs use on the core backend, in column-major order
+	 */
+	private final float[] projection = {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1};
+
+
+	/*
+	 * Initialization
+	 */
+
+	/**
+	 * Chooses the backend to draw through based on the current context. Must be called once,
+	 * with the context current, before drawing anything. Core profile contexts get the CORE backend,
+	 * everything else keeps the LEGACY backend.
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather init() {
+		final GLCapabilities caps = GL.getCapabilities();
+		vertexArrays = caps.OpenGL30 || caps.GL_ARB_vertex_array_object;
+		if (caps.OpenGL32 && (glGetInteger(GL_CONTEXT_PROFILE_MASK) & GL_CONTEXT_CORE_PROFILE_BIT) != 0) {
+			backend = Backend.CORE;
+			vao = glGenVertexArrays();
+			bindVertexArray(vao);
+		}
+		if (compact == null && (caps.OpenGL30 || caps.GL_ARB_half_float_vertex))
+			compact = Tessellator.createExpanding(4 * 64, VertexFormat.COMPACT_2D).setTransform(matrix);
+		return this;
+	}
+
+	/**
+	 * @return the pipeline we're drawing through
+	 */
+	public Backend backend() {
+		return backend;
+	}
+
 
 	/*
 	 * State Management - Most of these return Feather so they can be chained.
 	 */
 
 	/**
-	 * Binds an existing texture object to the working texture2D buffer
+	 * Switches the active texture unit, which bindTexture() binds to
+	 *
+	 * @param unit The index of the texture unit, starting from 0
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather activeTexture(int unit) {
+		if (unit != activeUnit) {
+			glActiveTexture(GL_TEXTURE0 + unit);
+			activeUnit = unit;
+			issued++;
+		} else skipped++;
+		return this;
+	}
+
+	/**
+	 * Binds an existing texture object to the working texture2D buffer of the active texture unit
 	 *
 	 * @param id The OpenGL ID of the texture object to be bound
 	 * @return the Feather manager, for additional chaining
 	 */
 	public Feather bindTexture(int id) {
-		glBindTexture(GL_TEXTURE_2D, id);
+		final int unit = activeUnit == UNKNOWN ? 0 : activeUnit;
+		if (activeUnit == UNKNOWN || textures[unit] != id) {
+			if (activeUnit == UNKNOWN)
+				activeTexture(0);
+			glBindTexture(GL_TEXTURE_2D, id);
+			textures[unit] = id;
+			issued++;
+		} else skipped++;
 		return this;
 	}
 
@@ -72,20 +306,830 @@ public enum Feather {
 	 * @return the Feather manager, for additional chaining
 	 */
 	public Feather bindBuffer(int id) {
-		glBindBuffer(GL_ARRAY_BUFFER, id);
+		if (id != arrayBuffer) {
+			glBindBuffer(GL_ARRAY_BUFFER, id);
+			arrayBuffer = id;
+			issued++;
+		} else skipped++;
+		return this;
+	}
+
+	/**
+	 * Binds an existing buffer object to the working element array buffer.
+	 * The element array buffer belongs to the bound vertex array object, so it's only
+	 * shadowed while our own vertex array object (or none, on the legacy backend) is bound.
+	 *
+	 * @param id The OpenGL ID of the buffer object to be bound
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather bindElementBuffer(int id) {
+		if (!shadowing()) {
+			glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, id);
+			issued++;
+		} else if (id != elementBuffer) {
+			glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, id);
+			elementBuffer = id;
+			issued++;
+		} else skipped++;
+		return this;
+	}
+
+	/**
+	 * Makes an existing shader program the active program
+	 *
+	 * @param id The OpenGL ID of the program to be used, or 0 for the fixed-function pipeline
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather useProgram(int id) {
+		if (id != program) {
+			glUseProgram(id);
+			program = id;
+			issued++;
+		} else skipped++;
+		return this;
+	}
+
+	/**
+	 * Binds an existing vertex array object. On the core backend, unbinding (binding 0)
+	 * binds our own vertex array object instead, as drawing without one is an error.
+	 * Unbinding does nothing at all where the context has no vertex array objects.
+	 *
+	 * @param id The OpenGL ID of the vertex array object to be bound
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather bindVertexArray(int id) {
+		final int array = id == 0 ? vao : id;
+		if (array != vertexArray && (vertexArrays || array != 0)) {
+			glBindVertexArray(array);
+			vertexArray = array;
+			issued++;
+		} else skipped++;
+		return this;
+	}
+
+	/**
+	 * Enables or disables one of the fixed-function client state arrays.
+	 * Vertex array objects hold these too, so they're only shadowed while ours (or none) is bound.
+	 *
+	 * @param array  The client state array, such as GL_VERTEX_ARRAY
+	 * @param enable Whether to enable or disable it
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather clientState(int array, boolean enable) {
+		final int bit = clientBit(array);
+		if (!shadowing() || bit == 0 || (clientKnown & bit) == 0 || ((clientStates & bit) != 0) != enable) {
+			if (enable)
+				glEnableClientState(array);
+			else
+				glDisableClientState(array);
+			if (shadowing()) {
+				clientKnown |= bit;
+				clientStates = enable ? clientStates | bit : clientStates & ~bit;
+			}
+			issued++;
+		} else skipped++;
+		return this;
+	}
+
+	/**
+	 * Enables or disables blending
+	 *
+	 * @param enable Whether to enable or disable blending
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather blend(boolean enable) {
+		final int state = enable ? GL_TRUE : GL_FALSE;
+		if (state != blend) {
+			if (enable)
+				glEnable(GL_BLEND);
+			else
+				glDisable(GL_BLEND);
+			blend = state;
+			issued++;
+		} else skipped++;
+		return this;
+	}
+
+	/**
+	 * Sets the blending function
+	 *
+	 * @param src The source blending factor, such as GL_SRC_ALPHA
+	 * @param dst The destination blending factor, such as GL_ONE_MINUS_SRC_ALPHA
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather blendFunc(int src, int dst) {
+		if (src != blendSrc || dst != blendDst) {
+			glBlendFunc(src, dst);
+			blendSrc = src;
+			blendDst = dst;
+			issued++;
+		} else skipped++;
+		return this;
+	}
+
+	/**
+	 * @return the current blending state packed into an integer: 0 if blending is disabled, otherwise the source factor
+	 * in the upper 16 bits and the destination factor in the lower 16. -1 if we don't know the state.
+	 */
+	public int blendState() {
+		if (blend == GL_FALSE)
+			return 0;
+		if (blend == UNKNOWN || blendSrc == UNKNOWN)
+			return UNKNOWN;
+		return blendSrc << 16 | blendDst;
+	}
+
+	/**
+	 * Restores a blending state packed by blendState(). An unknown (-1) state is left alone.
+	 *
+	 * @param state The packed blending state
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather setBlendState(int state) {
+		if (state == 0)
+			return blend(false);
+		if (state != UNKNOWN)
+			blend(true).blendFunc(state >>> 16, state & 0xFFFF);
+		return this;
+	}
+
+	/**
+	 * Turns distance field shading on or off, for drawing textures marked with markDistanceField(). The edge of each shape
+	 * lies where the distance field's alpha crosses one half. On the core backend, textured draws switch to
+	 * Shading.DISTANCE_FIELD, which smooths the edge over a single pixel at any scale. On the legacy backend, the alpha test
+	 * rejects everything outside the edge instead, which stays sharp at any scale, without the smoothing. The host's own
+	 * alpha test is queried as it's taken over, and restored exactly once distance field shading is turned off again.
+	 *
+	 * @param enable Whether textured draws sample their texture as a distance field
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather setDistanceField(boolean enable) {
+		final int state = enable ? GL_TRUE : GL_FALSE;
+		if (state != distanceField) {
+			if (backend == Backend.LEGACY) {
+				if (enable) {
+					if (!alphaSaved) {
+						alphaSaved = true;
+						alphaEnabled = glIsEnabled(GL_ALPHA_TEST);
+						alphaFunc = glGetInteger(GL_ALPHA_TEST_FUNC);
+						alphaRef = glGetFloat(GL_ALPHA_TEST_REF);
+					}
+					glEnable(GL_ALPHA_TEST);
+					glAlphaFunc(GL_GEQUAL, 0.5f);
+				} else if (alphaSaved) {        // only ever put back what we took over.
+					alphaSaved = false;
+					if (!alphaEnabled)
+						glDisable(GL_ALPHA_TEST);
+					glAlphaFunc(alphaFunc, alphaRef);
+				}
+			}
+			distanceField = state;
+			issued++;
+		} else skipped++;
+		return this;
+	}
+
+	/**
+	 * @return the shading mode textured draws use on the core backend: DISTANCE_FIELD while distance field shading is on,
+	 * otherwise TEXTURED
+	 */
+	public Shading textureShading() {
+		return distanceField == GL_TRUE ? Shading.DISTANCE_FIELD : Shading.TEXTURED;
+	}
+
+	/**
+	 * Marks a texture as holding a distance field, so it's drawn with distance field shading whenever the Frame Batch
+	 * or a Vertex Builder binds it. Deleting the texture through deleteTexture() unmarks it.
+	 *
+	 * @param id The OpenGL ID of the texture
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather markDistanceField(int id) {
+		fields.set(id);
+		return this;
+	}
+
+	/**
+	 * @param id The OpenGL ID of a texture
+	 * @return whether the texture was marked as holding a distance field
+	 */
+	public boolean isDistanceField(int id) {
+		return id > 0 && fields.get(id);
+	}
+
+	/**
+	 * Enables exactly the given generic attribute arrays within the bound vertex array object, and disables the rest.
+	 * Used by the core backend, where nothing else is left to disable stale arrays.
+	 *
+	 * @param locations a mask with one bit set for each attribute location to be enabled
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather enableAttributes(int locations) {
+		if (locations == attributes)
+			skipped++;
+		for (int changed = attributes ^ locations; changed != 0; changed &= changed - 1) {
+			final int location = Integer.numberOfTrailingZeros(changed);
+			if ((locations & 1 << location) != 0)
+				glEnableVertexAttribArray(location);
+			else
+				glDisableVertexAttribArray(location);
+			issued++;
+		}
+		attributes = locations;
+		return this;
+	}
+
+	/**
+	 * Deletes a buffer object. Deleting a bound buffer object unbinds it, so it's forgotten here as well.
+	 *
+	 * @param id The OpenGL ID of the buffer object to be deleted
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather deleteBuffer(int id) {
+		glDeleteBuffers(id);
+		if (arrayBuffer == id)
+			arrayBuffer = 0;
+		if (elementBuffer == id)
+			elementBuffer = 0;
+		return this;
+	}
+
+	/**
+	 * Deletes a texture object. Deleting a bound texture object unbinds it, so it's forgotten here as well.
+	 *
+	 * @param id The OpenGL ID of the texture object to be deleted
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather deleteTexture(int id) {
+		glDeleteTextures(id);
+		fields.clear(id);
+		for (int unit = 0; unit < textures.length; unit++)
+			if (textures[unit] == id)
+				textures[unit] = 0;
+		return this;
+	}
+
+	/**
+	 * Forgets everything we know about OpenGL's state, so the next call to each of the above is issued no matter what.
+	 * Call this after any code that changes these states without going through Feather.
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather invalidate() {
+		Arrays.fill(textures, UNKNOWN);
+		activeUnit = arrayBuffer = elementBuffer = program = vertexArray = blend = blendSrc = blendDst = distanceField = UNKNOWN;
+		if (vao == 0)                               // on the legacy backend, we draw with no vertex array object bound, and assume the host did the same.
+			vertexArray = 0;
+		clientKnown = 0;
+		attributes = ALL_ATTRIBUTES;
+		return this;
+	}
+
+	/**
+	 * @return the number of state changes skipped because they wouldn't have changed anything, since the last resetCounters()
+	 */
+	public long skipped() {
+		return skipped;
+	}
+
+	/**
+	 * @return the number of state changes actually passed along to OpenGL, since the last resetCounters()
+	 */
+	public long issued() {
+		return issued;
+	}
+
+	/**
+	 * Zeroes the skipped() and issued() counters
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather resetCounters() {
+		skipped = issued = 0;
+		return this;
+	}
+
+	/**
+	 * @return whether the bound vertex array object is the one whose state we shadow
+	 */
+	private boolean shadowing() {
+		return vertexArray == vao;
+	}
+
+	/**
+	 * @param array a client state array
+	 * @return the bit representing it within our shadowed client states, or 0 if we don't shadow it
+	 */
+	private static int clientBit(int array) {
+		switch (array) {
+			case GL_VERTEX_ARRAY:
+				return 1;
+			case GL_COLOR_ARRAY:
+				return 2;
+			case GL_TEXTURE_COORD_ARRAY:
+				return 4;
+			case GL_NORMAL_ARRAY:
+				return 8;
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * Sets the projection matrix our built-in shader programs transform vertices by on the core backend.
+	 * On the legacy backend they use OpenGL's own matrix stack instead.
+	 *
+	 * @param matrix the 16 floats of the matrix, in column-major order
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather setProjection(float[] matrix) {
+		System.arraycopy(matrix, 0, projection, 0, 16);
+		return this;
+	}
+
+	/**
+	 * Sets the projection matrix to a 2D orthographic projection with its origin at the top-left corner of the screen.
+	 *
+	 * @param width  the width of the screen
+	 * @param height the height of the screen
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather ortho(float width, float height) {
+		return setProjection(new float[]{
+				2 / width, 0, 0, 0,
+				0, -2 / height, 0, 0,
+				0, 0, -1, 0,
+				-1, 1, 0, 1});
+	}
+
+	/**
+	 * @return the projection matrix our built-in shader programs use on the core backend
+	 */
+	public float[] projection() {
+		return projection;
+	}
+
+	/*
+	 * Frame Batching
+	 */
+
+	/**
+	 * Starts the frame by running any OpenGL tasks submitted from other threads (see runTasks()), and then starts batching.
+	 * Until end() is called, every string and every textured quad drawn through Feather
+	 * (see Texture.draw()) is queued in our Frame Batch, rather than drawn right away, and drawn in as few batches as possible.
+	 * Anything drawn some other way in the meantime is drawn before everything queued, unless flush() is called first.
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather begin() {
+		runTasks();
+		batching = true;
+		return this;
+	}
+
+	/**
+	 * Draws everything queued since begin(), and stops batching.
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather end() {
+		flush();
+		batching = false;
+		return this;
+	}
+
+	/**
+	 * Draws everything queued so far, without stopping batching.
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather flush() {
+		/* drawDepth() needs a z for every quad, which our compact Tessellator can't hold */
+		final Tessellator tess = mode != RenderMode.DEPTH && compact != null && batch.integral() ? compact : this.tess;
+		tess.setTransform(null);                    // queued quads were transformed as they were queued.
+		if (mode == RenderMode.DEPTH)
+			batch.drawDepth(tess);
+		else
+			batch.draw(tess);
+		tess.setTransform(matrix);
+		return this;
+	}
+
+	/**
+	 * Sets how our Frame Batch keeps paint order. See RenderMode.
+	 *
+	 * @param mode The render mode to draw batches with from the next flush() on
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather setRenderMode(RenderMode mode) {
+		this.mode = mode;
+		return this;
+	}
+
+	/**
+	 * Flags everything queued from now on as fully opaque (or not). In the DEPTH render mode, opaque quads are
+	 * drawn before everything else, out of order, and hide whatever they cover. Text and anything with soft edges is
+	 * never opaque.
+	 *
+	 * @param opaque Whether every pixel of every quad queued from now on is fully opaque
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather setOpaque(boolean opaque) {
+		this.opaque = opaque;
+		return this;
+	}
+
+	/**
+	 * @return whether we're between begin() and end()
+	 */
+	public boolean batching() {
+		return batching;
+	}
+
+	/**
+	 * Sets the color of everything queued while batching, as the queued quads are drawn long after
+	 * OpenGL's current color may have changed. In the same format as Tessellator.setColor().
+	 *
+	 * @param color The color to queue quads with, white by default
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather setColor(int color) {
+		this.color = color;
+		return this;
+	}
+
+	/**
+	 * Queues a textured quad in our Frame Batch, with the current color, opacity and blending state. Only valid while batching.
+	 *
+	 * @param texture The OpenGL ID of the texture the quad samples
+	 * @param x1      The x coordinate of the first corner
+	 * @param y1      The y coordinate of the first corner
+	 * @param x2      The x coordinate of the opposite corner
+	 * @param y2      The y coordinate of the opposite corner
+	 * @param u       The horizontal texture coordinate of the first corner
+	 * @param v       The vertical texture coordinate of the first corner
+	 * @param u1      The horizontal texture coordinate of the opposite corner
+	 * @param v1      The vertical texture coordinate of the opposite corner
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather queueQuad(int texture, float x1, float y1, float x2, float y2, float u, float v, float u1, float v1) {
+		return queueQuad(texture, x1, y1, x2, y2, u, v, u1, v1, opaque);
+	}
+
+	/**
+	 * Queues a textured quad, transformed by our Matrix. The Frame Batch only holds axis-aligned quads,
+	 * so while our Matrix rotates, everything queued so far is drawn and the quad is drawn right away instead.
+	 */
+	private Feather queueQuad(int texture, float x1, float y1, float x2, float y2, float u, float v, float u1, float v1, boolean opaque) {
+		final Matrix matrix = this.matrix;
+		if (matrix.isAxisAligned()) {
+			batch.add(texture, blendState(), matrix.transformX(x1, y1, 0), matrix.transformY(x1, y1, 0),
+					matrix.transformX(x2, y2, 0), matrix.transformY(x2, y2, 0), u, v, u1, v1, color, opaque);
+		} else {
+			flush();
+			bindTexture(texture).setDistanceField(isDistanceField(texture));
+			tess.setColor(color).addQuad(x1, y1, x2, y2, u, v, u1, v1).draw(GL_QUADS);
+			setDistanceField(false);
+		}
+		return this;
+	}
+
+	/**
+	 * @return the Frame Batch queuing everything drawn while batching
+	 */
+	public FrameBatch batch() {
+		return batch;
+	}
+
+
+	/*
+	 * Matrix Stack - transformations applied on the CPU as vertices are entered, rather than by OpenGL,
+	 * so transforming between widgets never forces anything to be drawn.
+	 */
+
+	/**
+	 * @return the current transformation, which everything drawn through Feather is transformed by.
+	 * Pass it to Tessellator.setTransform() to transform your own Tessellators by it too.
+	 */
+	public Matrix matrix() {
+		return matrix;
+	}
+
+	/**
+	 * Saves the current transformation, to be restored by popMatrix().
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather pushMatrix() {
+		if (depth == matrices.length) {
+			matrices = Arrays.copyOf(matrices, Math.max(8, depth * 2));
+			for (int i = depth; i < matrices.length; i++)
+				matrices[i] = new Matrix();
+		}
+		matrices[depth++].set(matrix);
+		return this;
+	}
+
+	/**
+	 * Restores the transformation saved by the matching pushMatrix().
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather popMatrix() {
+		if (depth == 0)
+			throw new IllegalStateException("popMatrix() called without a matching pushMatrix()");
+		matrix.set(matrices[--depth]);
+		return this;
+	}
+
+	/**
+	 * Resets the current transformation to the identity.
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather loadIdentity() {
+		matrix.identity();
+		return this;
+	}
+
+	/**
+	 * Translates everything drawn from now on. See Matrix.translate().
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather translate(float x, float y, float z) {
+		matrix.translate(x, y, z);
+		return this;
+	}
+
+	/**
+	 * Translates everything drawn from now on along the x-y plane.
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather translate(float x, float y) {
+		return translate(x, y, 0);
+	}
+
+	/**
+	 * Scales everything drawn from now on. See Matrix.scale().
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather scale(float x, float y, float z) {
+		matrix.scale(x, y, z);
+		return this;
+	}
+
+	/**
+	 * Scales everything drawn from now on along the x-y plane.
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather scale(float x, float y) {
+		return scale(x, y, 1);
+	}
+
+	/**
+	 * Rotates everything drawn from now on about an arbitrary axis. See Matrix.rotate().
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather rotate(float degrees, float x, float y, float z) {
+		matrix.rotate(degrees, x, y, z);
+		return this;
+	}
+
+	/**
+	 * Rotates everything drawn from now on about the z axis. While rotated, anything queued while batching is drawn right away.
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather rotate(float degrees) {
+		return rotate(degrees, 0, 0, 1);
+	}
+
+	/**
+	 * Draws Vertex Builders filled on other threads, in the order given, transformed by our Matrix. Anything queued while batching is drawn first.
+	 *
+	 * @param builders the Vertex Builders to draw, which are left alone afterwards
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather draw(VertexBuilder... builders) {
+		if (batching)
+			flush();
+		for (VertexBuilder builder : builders)
+			builder.replay(tess);
+		return this;
+	}
+
+	/*
+	 * Task Queue - submit() and execute() may be called from any thread.
+	 */
+
+	/**
+	 * Queues some OpenGL work to be run on the OpenGL thread, from any thread. Never blocks.
+	 *
+	 * @param task the work to run, producing a result (such as the ID of a new OpenGL object)
+	 * @param <T>  the type of the result
+	 * @return a future completed with the result once the task has run, or exceptionally if the task failed
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<T> task) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		tasks.add(() -> {
+			try {
+				future.complete(task.get());
+			} catch (Throwable t) {
+				future.completeExceptionally(t);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Queues some OpenGL work without a result to be run on the OpenGL thread, from any thread. Never blocks.
+	 *
+	 * @param task the work to run
+	 * @return a future completed once the task has run, or exceptionally if the task failed
+	 */
+	public CompletableFuture<Void> execute(Runnable task) {
+		return submit(() -> {
+			task.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Runs queued tasks, in the order they were queued, until the queue is empty or the task budget is spent.
+	 * At least one task is always run, so the queue keeps moving however small the budget. Called by begin().
+	 *
+	 * @return the number of tasks run
+	 */
+	public int runTasks() {
+		final long deadline = System.nanoTime() + taskBudget;
+		int run = 0;
+		Runnable task;
+		while ((run == 0 || System.nanoTime() < deadline) && (task = tasks.poll()) != null) {
+			task.run();
+			run++;
+		}
+		return run;
+	}
+
+	/**
+	 * @param nanos How long, in nanoseconds, runTasks() may keep running tasks each frame. 2 milliseconds by default.
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather setTaskBudget(long nanos) {
+		taskBudget = nanos;
 		return this;
 	}
 
+	/**
+	 * Creates a texture from RGBA pixels on the OpenGL thread, from any thread.
+	 *
+	 * @param width  the width of the texture in pixels
+	 * @param height the height of the texture in pixels
+	 * @param pixels the texture's RGBA pixels, row by row, in a direct buffer which must be left alone until the future completes
+	 * @return a future completed with a Texture covering the whole texture, its ID filled in
+	 */
+	public CompletableFuture<Texture> createTexture(int width, int height, ByteBuffer pixels) {
+		return submit(() -> {
+			final int id = glGenTextures();
+			bindTexture(id);
+			glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA8, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, pixels);
+			glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+			glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+			return Texture.from(0, 0, 1, 1, width, height).setID(id);
+		});
+	}
+
+	/**
+	 * Deletes a VBO on the OpenGL thread, from any thread.
+	 *
+	 * @param vbo the VBO to delete
+	 * @return a future completed once it's deleted
+	 */
+	public CompletableFuture<Void> deleteLater(VBO vbo) {
+		return execute(vbo::delete);
+	}
+
 	/*
-	 * Basic Rendering Routines
+	 * Frame Handoff - the only part of Feather that may be used off the OpenGL thread, by a single producer thread.
+	 */
+
+	/**
+	 * For the producer thread. Starts recording the next frame: its vertices, texture binds and blending, all into a
+	 * Vertex Builder, which never touches OpenGL. Hand it over with submitFrame() once finished. While the producer
+	 * records one frame, the OpenGL thread can be drawing another.
+	 *
+	 * @return an empty Vertex Builder to record the next frame into
+	 */
+	public VertexBuilder recordFrame() {
+		return frames.back().reset();
+	}
+
+	/**
+	 * For the producer thread. Hands the frame recorded since recordFrame() over to the OpenGL thread,
+	 * replacing any earlier frame it hasn't gotten to yet. Never blocks.
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather submitFrame() {
+		frames.publish();
+		return this;
+	}
+
+	/**
+	 * For the OpenGL thread. Draws the latest frame submitted by the producer thread, or the same frame as last time
+	 * if nothing newer has been submitted. Never blocks.
+	 *
+	 * @return whether the frame drawn is a new one
 	 */
+	public boolean drawFrame() {
+		final boolean fresh = frames.update();
+		draw(frames.front());
+		return fresh;
+	}
+
 
 	public Feather setFont(Font font) {
 		// holy shit streams
-		currentFont = fonts.computeIfAbsent(font, FontCache::from);
+		currentFont = fonts.computeIfAbsent(font, f -> restore(FontCache.from(f)));
+		return this;
+	}
+
+	/**
+	 * Sets the Font to draw, optionally from a distance field atlas (see FontCache.fromDistanceField()).
+	 * A distance field Font stays sharp at any size, so a single one can serve every size through drawString(str, x, y, size).
+	 *
+	 * @param font          The Font to draw. For distance fields, a fairly large size (such as 32) gives the most accurate shapes.
+	 * @param distanceField Whether to draw it from a distance field atlas
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather setFont(Font font, boolean distanceField) {
+		if (!distanceField)
+			return setFont(font);
+		currentFont = distanceFonts.computeIfAbsent(font, f -> restore(FontCache.fromDistanceField(f)));
+		return this;
+	}
+
+	/**
+	 * Sets the directory font snapshots are kept in. Every FontCache created by setFont() from now on restores its snapshot
+	 * from there, if it has one, and saveFontSnapshots() writes them all back. See FontCache.loadSnapshot().
+	 *
+	 * @param directory the directory to keep font snapshots in, or null to stop using snapshots
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather setFontSnapshots(Path directory) {
+		snapshots = directory;
+		return this;
+	}
+
+	/**
+	 * Saves a snapshot of every FontCache created by setFont() into the directory set by setFontSnapshots(), such as on shutdown,
+	 * so the glyphs they've cached are restored rather than rasterized again on the next run.
+	 *
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather saveFontSnapshots() {
+		if (snapshots == null)
+			throw new IllegalStateException("You must first set the directory to keep font snapshots in");
+		for (FontCache cache : fonts.values())
+			cache.saveSnapshot(snapshots);
+		for (FontCache cache : distanceFonts.values())
+			cache.saveSnapshot(snapshots);
 		return this;
 	}
 
+	/**
+	 * @param cache a freshly created FontCache
+	 * @return the same FontCache, with its snapshot restored if we're using snapshots and it has one
+	 */
+	private FontCache restore(FontCache cache) {
+		if (snapshots != null)
+			cache.loadSnapshot(snapshots);
+		return cache;
+	}
+
+	/**
+	 * Draws a string scaled to the given size, through our Matrix. Best used with a distance field Font, as any other
+	 * Font is simply stretched.
+	 *
+	 * @param str  the string to draw
+	 * @param x    the x coordinate of the string's baseline origin
+	 * @param y    the y coordinate of the string's baseline origin
+	 * @param size the size to draw the string at, in the same units as Font sizes
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather drawString(String str, float x, float y, float size) {
+		if(currentFont == null)
+			throw new RuntimeException("You must first set the Font to draw");
+
+		final float scale = size / currentFont.getFont().getSize2D();
+		return pushMatrix().translate(x, y).scale(scale, scale).drawString(str, 0, 0).popMatrix();
+	}
+
 	public Feather drawString(String str, float x, float y) {
 		if(currentFont == null)
 			throw new RuntimeException("You must first set the Font to draw");
@@ -93,36 +1137,95 @@ public enum Feather {
 		/* Make sure the entire string is cached before rendering and return its glyph representation */
 		final GlyphLayout entry = currentFont.cacheString(str);
 
+		/* While batching, simply queue every glyph and let the Frame Batch worry about textures */
+		if (batching) {
+			for (FontGlyph glyph : entry.glyphs) {
+				final float x1 = x + glyph.x;
+				final float y1 = y + glyph.y;
+				queueQuad(glyph.texture(), x1, y1, x1 + glyph.width(), y1 + glyph.height(),
+						glyph.u(), glyph.v(), glyph.u1(), glyph.v1(), false); // glyphs are never opaque.
+			}
+			return this;
+		}
+
+		/* Glyphs land on whole pixels unless our Matrix scales, rotates, or moves them between pixels, so use half the memory where we can */
+		final Tessellator tess = compact(x, y, entry.width) ? compact : this.tess;
+
 		/* Track which texture is currently bound to minimize the number of glBindTexture() and Tessellator.draw() calls needed */
 		int boundTex = 0;
+		setDistanceField(currentFont.distanceField());
 
 		/* Cycle through the Glyphs to be rendered */
 		for (FontGlyph glyph : entry.glyphs) {
-			final Texture texture = glyph.texture;
+			final int texture = glyph.texture();
 
 			/*
 			* Make sure the OpenGL texture storing this glyph's image is bound (if not already bound). All pending glyphs in the
 			* Tessellator's vertex array must be drawn before switching textures, otherwise they would erroneously use the new
 			* texture as well.
 			*/
-			if (boundTex != texture.id()) {
+			if (boundTex != texture) {
 				if (boundTex != 0)
 					tess.draw(GL_QUADS);
-				boundTex = texture.bind().id();
+				bindTexture(boundTex = texture);
 			}
 			final float x1 = x + glyph.x;
-			final float x2 = x1 + texture.width();
+			final float x2 = x1 + glyph.width();
 			final float y1 = y + glyph.y;
-			final float y2 = y1 + texture.height();
-			tess.setTexture(texture.u(), texture.v()).addVertex(x1, y1, 0);
-			tess.setTexture(texture.u(), texture.v1()).addVertex(x1, y2, 0);
-			tess.setTexture(texture.u1(), texture.v1()).addVertex(x2, y2, 0);
-			tess.setTexture(texture.u1(), texture.v()).addVertex(x2, y1, 0);
+			final float y2 = y1 + glyph.height();
+			tess.addQuad(x1, y1, x2, y2, glyph.u(), glyph.v(), glyph.u1(), glyph.v1());
 		}
 
 		/* Draw any remaining glyphs in the Tessellator's vertex array (there should be at least one glyph pending) */
 		tess.draw(GL_QUADS);
+		setDistanceField(false);
+
+		return this;
+	}
 
+	/**
+	 * @param x     the x coordinate of a string's baseline origin
+	 * @param y     the y coordinate of a string's baseline origin
+	 * @param width the width of the string
+	 * @return whether every corner of every glyph in the string lands on a whole pixel within the range of a short,
+	 * so the string can be drawn through our compact Tessellator
+	 */
+	private boolean compact(float x, float y, int width) {
+		if (compact == null || !matrix.isTranslation() || matrix.translationZ() != 0)
+			return false;
+		x += matrix.translationX();
+		y += matrix.translationY();
+		final int size = currentFont.getFont().getSize() * 2;   // glyphs never reach further than this above or below the baseline.
+		return whole(x) && whole(x + width) && whole(y - size) && whole(y + size);
+	}
+
+	/**
+	 * @return whether the given coordinate is a whole number that fits in a short
+	 */
+	private static boolean whole(float value) {
+		return value == (short) value;
+	}
+
+	/**
+	 * Adds a string to an Instance Batch, one instance per glyph, rather than drawing it through our Tessellator.
+	 * The glyphs are drawn whenever the batch next draws, so many strings (and icons) can share its draw calls.
+	 *
+	 * @param batch the Instance Batch to add the string's glyphs to
+	 * @param str   the string to draw
+	 * @param x     the x coordinate of the string's baseline origin
+	 * @param y     the y coordinate of the string's baseline origin
+	 * @param color the color of the string, in the same format as Tessellator.setColor()
+	 * @return the Feather manager, for additional chaining
+	 */
+	public Feather drawString(InstanceBatch batch, String str, float x, float y, int color) {
+		if(currentFont == null)
+			throw new RuntimeException("You must first set the Font to draw");
+
+		final GlyphLayout entry = currentFont.cacheString(str);
+		batch.setShading(currentFont.distanceField() ? Shading.DISTANCE_FIELD : Shading.ALPHA_TEXTURED);
+		for (FontGlyph glyph : entry.glyphs)
+			batch.setTexture(glyph.texture()).add(x + glyph.x, y + glyph.y, glyph.width(), glyph.height(),
+					glyph.u(), glyph.v(), glyph.u1(), glyph.v1(), color);
 		return this;
 	}
 
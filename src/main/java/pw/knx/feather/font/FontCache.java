@@ -1,20 +1,40 @@
 package pw.knx.feather.font;
 
+import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.opengl.GLCapabilities;
+import pw.knx.feather.Feather;
+import pw.knx.feather.structures.LongIntMap;
 import pw.knx.feather.tessellate.Tessellator;
-import pw.knx.feather.texture.Texture;
 
 import java.awt.*;
 import java.awt.font.FontRenderContext;
 import java.awt.font.GlyphVector;
+import java.awt.font.TextAttribute;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.text.Bidi;
 import java.util.*;
 import java.util.List;
+import java.util.function.IntUnaryOperator;
+import java.util.zip.CRC32;
+
+import static pw.knx.feather.Feather.FEATHER;
 
 /**
  * FontCache is a simple, one-class library for the rendering of all Unicode Strings using OpenType fonts.
@@ -30,7 +50,7 @@ import java.util.List;
  * This aforementioned processing model is as follows: FontCache caches the glyph layout of individual strings,
  * and it also caches the pre-rendered images for individual glyphs. Once a string and its glyph images are cached,
  * the critical path in renderString() will draw the glyphs as fast as if using a bitmap font. Strings are cached
- * using weak references through a two layer string cache. Strings that are no longer in use by LWJGL will be
+ * by content in a bounded, least-recently-used Layout Cache. Strings that haven't been drawn in a while will be
  * silently evicted from the cache, while the pre-rendered images of individual glyphs remains cached forever.
  * <p>
  * This class is also responsible for selecting the proper fonts to render each glyph, since Java's own "SansSerif"
@@ -63,6 +83,32 @@ public class FontCache {
 	 */
 	private static final Color CLEAR = new Color(255, 255, 255, 0);
 
+	/**
+	 * The number of characters covered by the Latin-1 fast path, which is every character from U+0000 to U+00FF.
+	 */
+	private static final int LATIN = 256;
+
+	/**
+	 * Marks characters in latinGlyphs whose glyphs haven't been looked up yet, and characters that the fast path can't lay out.
+	 */
+	private static final int UNKNOWN = -2, UNSUPPORTED = -1;
+
+	/**
+	 * Marks pairs in latinKerning whose kerning hasn't been measured yet.
+	 */
+	private static final byte UNMEASURED = Byte.MIN_VALUE;
+
+	/**
+	 * Identifies snapshot files ("FTHR"), and the version of their layout, bumped whenever the layout changes.
+	 */
+	private static final int SNAPSHOT_MAGIC = 0x46544852, SNAPSHOT_VERSION = 1;
+
+	/**
+	 * How far, in pixels, a distance field reaches out from (and in from) each glyph's outline. Each glyph image in a
+	 * distance field atlas is padded by this much on every side.
+	 */
+	private static final int SPREAD = 4;
+
 	/*
 	 * Glyph Graphics
 	 */
@@ -116,6 +162,27 @@ public class FontCache {
 	 */
 	private int texture;
 
+	/**
+	 * The IDs of every OpenGL cache texture allocated so far (the atlas pages), in order. The last is always the current texture.
+	 */
+	private final List<Integer> pages = new ArrayList<>();
+
+	/**
+	 * The alpha of every full atlas page, one byte per pixel, kept so the pages can be written to a snapshot without reading
+	 * them back from OpenGL. The current page's alpha is still in the glyphImage.
+	 */
+	private final List<byte[]> fullPages = new ArrayList<>();
+
+	/**
+	 * Whether glyphs are cached as signed distance fields rather than plain images. See fromDistanceField().
+	 */
+	private final boolean distanceField;
+
+	/**
+	 * Internal format of the OpenGL cache textures, chosen for the current backend by allocateTexture().
+	 */
+	private int internalFormat = GL11.GL_ALPHA8;
+
 	/*
 	 * Fonts
 	 */
@@ -138,11 +205,10 @@ public class FontCache {
 	 */
 
 	/**
-	 * Every String passed to the public renderString() function is added to this WeakHashMap. As long as an application
-	 * continues to hold a strong reference to the String object (i.e. from TileEntitySign and ChatLine) passed here, the
-	 * weakRefCache map will continue to hold a strong reference to the Entry object that said strings all map to.
+	 * Every String passed to the public cacheString() function is laid out once and added to this Layout Cache, where
+	 * it stays until it's gone unused long enough to be evicted. By default, up to 1024 layouts or 1 MB are kept.
 	 */
-	private final Map<String, GlyphLayout> stringCache = new WeakHashMap<>();
+	private final LayoutCache stringCache = new LayoutCache(1024, 1 << 20);
 
 	/**
 	 * A cache of all fonts that have at least one glyph pre-rendered in a texture. Each font maps to an integer (monotonically
@@ -152,11 +218,50 @@ public class FontCache {
 	private final Map<Font, Integer> fontCache = new HashMap<>();
 
 	/**
-	 * A cache of pre-rendered glyph textures mapping each glyph by its glyphcode to the position of its pre-rendered image within
-	 * the cache texture. The key is a 64 bit number such that the lower 32 bits are the glyphcode and the upper 32 are the
-	 * index of the font in the fontCache. This makes for a single globally unique number to identify any glyph from any font.
+	 * A description of each font index handed out to fontCache, and the index handed out for each description. Fonts are matched
+	 * by description rather than by object, so glyphs restored from a snapshot are found again by fonts created after a restart.
+	 */
+	private final List<String> fontDescriptions = new ArrayList<>();
+	private final Map<String, Integer> fontIndices = new HashMap<>();
+
+	/**
+	 * A cache of pre-rendered glyphs mapping each glyph by its glyphcode to its index in the glyphTable. The key is a 64 bit
+	 * number such that the lower 32 bits are the glyphcode and the upper 32 are the index of the font in the fontCache.
+	 * This makes for a single globally unique number to identify any glyph from any font.
 	 */
-	private final Map<Long, Texture> glyphCache = new HashMap<>();
+	private final LongIntMap glyphCache = new LongIntMap(256);
+
+	/**
+	 * The texture ID and position of every pre-rendered glyph image within the cache textures, packed into primitive arrays.
+	 */
+	private final GlyphTable glyphTable = new GlyphTable(256);
+
+	/*
+	 * Latin-1 Fast Path
+	 */
+
+	/**
+	 * The glyphTable index of each Latin-1 character's glyph in the base font, UNKNOWN until first needed, or UNSUPPORTED if the
+	 * character is a control character or the base font can't display it. Along with the next three arrays, this lets strings made up
+	 * solely of supported Latin-1 characters be laid out with a simple loop, rather than with a full GlyphVector layout.
+	 */
+	private final int[] latinGlyphs = new int[LATIN];
+
+	/**
+	 * The horizontal advance, in pixels, of each Latin-1 character's glyph
+	 */
+	private final int[] latinAdvances = new int[LATIN];
+
+	/**
+	 * The position, in pixels, of each Latin-1 character's glyph image relative to its origin on the baseline
+	 */
+	private final int[] latinX = new int[LATIN], latinY = new int[LATIN];
+
+	/**
+	 * The kerning, in pixels, between every pair of Latin-1 characters (the first character times LATIN, plus the second),
+	 * measured as first needed. Only allocated once kerning is enabled.
+	 */
+	private byte[] latinKerning;
 
 	/*
 	 * Working Data
@@ -180,7 +285,9 @@ public class FontCache {
 	 */
 	private final List<FontGlyph> glyphs = new ArrayList<>();
 
-	FontCache() {
+	FontCache(boolean distanceField) {
+		this.distanceField = distanceField;
+		Arrays.fill(latinGlyphs, UNKNOWN);
 
 		/* Set background color for use with clearRect() */
 		glyphGraphics.setBackground(CLEAR);
@@ -199,6 +306,36 @@ public class FontCache {
 		return usedFonts.get(0);
 	}
 
+	/**
+	 * @return whether glyphs are cached as signed distance fields, to be drawn with distance field shading
+	 */
+	public boolean distanceField() {
+		return distanceField;
+	}
+
+	/**
+	 * @return the cache of string layouts, for tuning its limits and reading its metrics
+	 */
+	public LayoutCache layouts() {
+		return stringCache;
+	}
+
+	/**
+	 * Enables or disables pair kerning, for the base font and for the Latin-1 fast path alike.
+	 * Every cached string layout is evicted, so strings are laid out again with the new setting.
+	 *
+	 * @param kerning whether to kern pairs of glyphs, as the font specifies. Off by default.
+	 * @return the original FontCache
+	 */
+	public FontCache setKerning(boolean kerning) {
+		usedFonts.set(0, getFont().deriveFont(Collections.singletonMap(TextAttribute.KERNING, kerning ? TextAttribute.KERNING_ON : 0)));
+		latinKerning = kerning ? new byte[LATIN * LATIN] : null;
+		if (kerning)
+			Arrays.fill(latinKerning, UNMEASURED);
+		stringCache.clear();
+		return this;
+	}
+
 
 	/*
 	 * Caching Routines
@@ -217,9 +354,11 @@ public class FontCache {
 		/* If this string is already in the cache, simply return the cached Entry object */
 		GlyphLayout entry = stringCache.get(str);
 
-		/* If string is not cached then layout the string */
+		/* If string is not cached then layout the string, through the Latin-1 fast path if we can */
 		if (entry == null) {
-			final int width = layoutBidi(str);
+			int width = layoutLatin(str);
+			if (width < 0)
+				width = layoutBidi(str);
 
 			entry = new GlyphLayout(glyphs.toArray(new FontGlyph[glyphs.size()]), width);
 			glyphs.clear();
@@ -305,10 +444,10 @@ public class FontCache {
 		for (int index = 0; index < numGlyphs; index++) {
 
 			final int glyphCode = vector.getGlyphCode(index);
-			Texture tex = glyphCache.get(fontKey | glyphCode);
+			int glyph = glyphCache.get(fontKey | glyphCode);
 
 			/* If this glyph code is already in glyphCache, then there is no reason to pre-render it again */
-			if (tex == null) {
+			if (glyph < 0) {
 
 				/*
 			 	* The only way to get glyph shapes with font hinting is to draw the entire glyph vector into a
@@ -317,7 +456,7 @@ public class FontCache {
              	* array of glyphcodes (and therefore render only a few glyphs at a time), this produces corrupted
              	* Davengari glyphs under Windows 7. This will draw the string at most one time.
              	*/
-				if (vectorBounds == null)
+				if (vectorBounds == null && !distanceField)
 					vectorBounds = cacheVector(vector);
 
 				/*
@@ -326,7 +465,8 @@ public class FontCache {
              	* bounds are all relative to the start of the entire GlyphVector, which is actually more useful
              	* for extracting the glyph's image from the rendered string.
              	*/
-				final Rectangle rect = vector.getGlyphPixelBounds(index, null, -vectorBounds.x, -vectorBounds.y);
+				final Rectangle rect = distanceField ? glyphBounds(vector, index)
+						: vector.getGlyphPixelBounds(index, null, -vectorBounds.x, -vectorBounds.y);
 
 				/* If the current line in cache image is full, then advance to the next line */
 				if (cacheX + rect.width + 1 > TEXTURE_WIDTH) {
@@ -358,8 +498,11 @@ public class FontCache {
              	* cachePosY) position in the texture. NOTE: We don't have to erase the area in the texture image
              	* first because the composite method in the Graphics object is always set to AlphaComposite.Src.
              	*/
-				glyphGraphics.drawImage(stringImage, cacheX, cacheY, cacheX + rect.width, cacheY + rect.height, rect.x,
-						rect.y, rect.x + rect.width, rect.y + rect.height, null);
+				if (distanceField)
+					cacheField(vector.getGlyphOutline(index), rect);
+				else
+					glyphGraphics.drawImage(stringImage, cacheX, cacheY, cacheX + rect.width, cacheY + rect.height, rect.x,
+							rect.y, rect.x + rect.width, rect.y + rect.height, null);
 
 				/*
              	* Store this glyph's position in texture and its origin offset. Note that "rect" will not be modified after
@@ -371,13 +514,13 @@ public class FontCache {
              	* Create new cache entry to record both the texture used by the glyph and its position within that texture.
              	* Texture coordinates are normalized to 0.0-1.0 by dividing with TEXTURE_WIDTH and TEXTURE_HEIGHT.
              	*/
-				tex = Texture.from(rect.x, rect.y, rect.width, rect.height, TEXTURE_WIDTH).setID(texture);
+				glyph = glyphTable.add(rect.x, rect.y, rect.width, rect.height, TEXTURE_WIDTH, texture);
 
 				/*
              	 * The lower 32 bits of the glyphCache key are the glyph codepoint. The upper 64 bits are the font number
             	 * stored in the fontCache. This creates a unique numerical id for every font/glyph combination.
             	 */
-				glyphCache.put(fontKey | glyphCode, tex);
+				glyphCache.put(fontKey | glyphCode, glyph);
 
 				/*
              	* Track the overall modified region in the texture by performing a union of this glyph's texture position
@@ -394,8 +537,8 @@ public class FontCache {
 				cacheX += rect.width + 1;
 			}
 
-			final Point point = vector.getGlyphPixelBounds(index, null, 0, 0).getLocation();
-			glyphs.add(new FontGlyph(tex, point.x - 2 * index, point.y));
+			final Point point = glyphBounds(vector, index).getLocation();
+			glyphs.add(new FontGlyph(glyphTable, glyph, point.x - 2 * index, point.y));
 		}
 
 		/* Update OpenGL texture if any part of the glyphCacheImage has changed */
@@ -405,6 +548,66 @@ public class FontCache {
 		return (int) vector.getGlyphPosition(numGlyphs).getX() - 2 * numGlyphs;
 	}
 
+	/**
+	 * @param vector the GlyphVector holding the glyph
+	 * @param index  the glyph's index within the vector
+	 * @return the pixel-aligned bounds of the glyph's image, relative to the start of the vector. For distance fields, these are
+	 * the bounds of the glyph's outline padded by SPREAD, unless the outline is empty.
+	 */
+	private Rectangle glyphBounds(GlyphVector vector, int index) {
+		if (!distanceField)
+			return vector.getGlyphPixelBounds(index, null, 0, 0);
+		final Rectangle bounds = vector.getGlyphOutline(index).getBounds();
+		if (!bounds.isEmpty())
+			bounds.grow(SPREAD, SPREAD);
+		return bounds;
+	}
+
+	/**
+	 * Computes the signed distance field of a glyph's outline and stores it at (cacheX, cacheY) in the glyphImage, as white
+	 * with the distance in the alpha channel. Alpha is one half on the outline, rising to 1 at SPREAD pixels inside of it, and
+	 * falling to 0 at SPREAD pixels outside of it.
+	 * <p>
+	 * The outline is filled into a binary mask, and every pixel of the mask is then searched out to SPREAD pixels for the nearest
+	 * pixel on the other side of the outline. Glyphs are small, so the brute force search is fast enough for something done once.
+	 *
+	 * @param outline the glyph's outline, relative to the start of its GlyphVector
+	 * @param bounds  the padded bounds of the outline, see glyphBounds()
+	 */
+	private void cacheField(Shape outline, Rectangle bounds) {
+		final int width = bounds.width, height = bounds.height;
+		if (width == 0 || height == 0)
+			return;
+
+		final BufferedImage mask = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+		final Graphics2D graphics = mask.createGraphics();
+		graphics.setColor(Color.WHITE);
+		graphics.translate(-bounds.x, -bounds.y);
+		graphics.fill(outline);
+		graphics.dispose();
+		final byte[] inside = ((DataBufferByte) mask.getRaster().getDataBuffer()).getData();
+
+		final int[] field = new int[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				final boolean in = inside[y * width + x] != 0;
+
+				/* The squared distance to the nearest pixel on the other side of the outline, or past SPREAD if none is within reach */
+				int nearest = (SPREAD + 1) * (SPREAD + 1);
+				for (int dy = Math.max(-SPREAD, -y); dy <= Math.min(SPREAD, height - 1 - y); dy++)
+					for (int dx = Math.max(-SPREAD, -x); dx <= Math.min(SPREAD, width - 1 - x); dx++)
+						if ((inside[(y + dy) * width + x + dx] != 0) != in)
+							nearest = Math.min(nearest, dx * dx + dy * dy);
+
+				/* The outline lies halfway between a pixel and its nearest neighbor on the other side */
+				final float distance = Math.min(SPREAD, (float) Math.sqrt(nearest) - 0.5f);
+				final float alpha = 0.5f + (in ? distance : -distance) / (2 * SPREAD);
+				field[y * width + x] = Math.round(alpha * 255) << 24 | 0xFFFFFF;
+			}
+		}
+		glyphImage.setRGB(cacheX, cacheY, width, height, field, 0, width);
+	}
+
 	private Rectangle cacheVector(GlyphVector vector) {
 		/*
          * Compute the exact area that the rendered string will take up in the image buffer. Note that
@@ -433,6 +636,77 @@ public class FontCache {
 	 * Layout Routines
 	 */
 
+	/**
+	 * Lays out a string made up solely of Latin-1 characters the base font can display, by looking up each character's glyph
+	 * and advance directly, and adding the kerning between each pair if enabled. Such strings never need bidirectional analysis,
+	 * fallback fonts, or complex shaping, so this gives the same result as a full layout, at a fraction of the cost.
+	 *
+	 * @param str the string to layout
+	 * @return the width of the string, or -1 (with nothing laid out) if the string has to go through a full layout
+	 */
+	private int layoutLatin(String str) {
+		final int length = str.length();
+
+		/* Make sure every character's glyph is cached, and bail out before laying anything out if any can't be */
+		for (int i = 0; i < length; i++) {
+			final char ch = str.charAt(i);
+			if (ch >= LATIN || latinGlyph(ch) == UNSUPPORTED)
+				return -1;
+		}
+
+		int x = 0;
+		for (int i = 0; i < length; i++) {
+			final char ch = str.charAt(i);
+			if (latinKerning != null && i > 0)
+				x += latinKerning(str.charAt(i - 1), ch);
+			glyphs.add(new FontGlyph(glyphTable, latinGlyphs[ch], x + latinX[ch], latinY[ch]));
+			x += latinAdvances[ch];
+		}
+		return x;
+	}
+
+	/**
+	 * Looks up a Latin-1 character's glyph in the base font, laying it out and caching its image the first time.
+	 *
+	 * @param ch the character, below LATIN
+	 * @return the glyph's glyphTable index, or UNSUPPORTED if the fast path can't lay the character out
+	 */
+	private int latinGlyph(char ch) {
+		if (latinGlyphs[ch] != UNKNOWN)
+			return latinGlyphs[ch];
+
+		final Font font = getFont();
+		if (Character.isISOControl(ch) || !font.canDisplay(ch))
+			return latinGlyphs[ch] = UNSUPPORTED;
+
+		/* Lay the character out on its own, exactly as a full layout would, and take its glyph back out of the working list */
+		final int advance = cacheGlyphs(new char[]{ch}, 0, 1, Font.LAYOUT_LEFT_TO_RIGHT, font);
+		if (glyphs.size() != 1) {
+			glyphs.clear();
+			return latinGlyphs[ch] = UNSUPPORTED;
+		}
+		final FontGlyph glyph = glyphs.remove(0);
+		latinAdvances[ch] = advance;
+		latinX[ch] = glyph.x;
+		latinY[ch] = glyph.y;
+		return latinGlyphs[ch] = glyph.index;
+	}
+
+	/**
+	 * Measures the kerning between a pair of supported Latin-1 characters in the base font the first time, and looks it up afterwards.
+	 *
+	 * @return the kerning in pixels, added to the advance of the first character
+	 */
+	private int latinKerning(char first, char second) {
+		final int pair = first * LATIN + second;
+		if (latinKerning[pair] == UNMEASURED) {
+			final GlyphVector vector = getFont().layoutGlyphVector(fontContext, new char[]{first, second}, 0, 2, Font.LAYOUT_LEFT_TO_RIGHT);
+			final int kerning = (int) Math.round(vector.getGlyphPosition(1).getX()) - latinAdvances[first];
+			latinKerning[pair] = (byte) Math.max(Byte.MIN_VALUE + 1, Math.min(Byte.MAX_VALUE, kerning));
+		}
+		return latinKerning[pair];
+	}
+
 	private int layoutBidi(String str) {
 		final char[] text = str.toCharArray();
 
@@ -503,7 +777,10 @@ public class FontCache {
 	private GlyphVector layoutVector(Font font, char text[], int start, int limit, int layoutFlags) {
         /* Ensure this font is already in fontCache so it can be referenced by cacheGlyphs() later on */
 		if (!fontCache.containsKey(font))
-			fontCache.put(font, fontCache.size());
+			fontCache.put(font, fontIndices.computeIfAbsent(describe(font), description -> {
+				fontDescriptions.add(description);
+				return fontDescriptions.size() - 1;
+			}));
 		return font.layoutGlyphVector(fontContext, text, start, limit, layoutFlags);
 	}
 
@@ -520,7 +797,7 @@ public class FontCache {
 	private void updateTexture(Rectangle dirty) {
 		if (dirty != null) {
 			updateBuffer(dirty.x, dirty.y, dirty.width, dirty.height);
-			GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+			FEATHER.bindTexture(texture);
 			GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, dirty.x, dirty.y, dirty.width, dirty.height, GL11.GL_RGBA,
 					GL11.GL_UNSIGNED_BYTE, imageBuffer);
 		}
@@ -532,11 +809,17 @@ public class FontCache {
 	 * after returning from the function.
 	 */
 	private void allocateTexture() {
+		/* Keep the alpha of the page being left behind for snapshots */
+		if (!pages.isEmpty())
+			fullPages.add(pageAlpha());
+
 		/* Initialize the background to all white but fully transparent. */
 		glyphGraphics.clearRect(0, 0, TEXTURE_WIDTH, TEXTURE_HEIGHT);
 
 		/* Allocate new OpenGL texure */
 		texture = GL11.glGenTextures();
+		pages.add(texture);
+		internalFormat = internalFormat();
 
 		/* Load imageBuffer with pixel data ready for transfer to OpenGL texture */
 		updateBuffer(0, 0, TEXTURE_WIDTH, TEXTURE_HEIGHT);
@@ -545,13 +828,38 @@ public class FontCache {
          * Initialize texture with the now cleared BufferedImage. Using a texture with GL_ALPHA8 internal format may result in
          * faster rendering since the GPU has to only fetch 1 byte per texel instead of 4 with a regular RGBA texture.
          */
-		GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
-		GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_ALPHA8, TEXTURE_WIDTH, TEXTURE_HEIGHT, 0, GL11.GL_RGBA,
+		FEATHER.bindTexture(texture);
+		GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, internalFormat, TEXTURE_WIDTH, TEXTURE_HEIGHT, 0, GL11.GL_RGBA,
 				GL11.GL_UNSIGNED_BYTE, imageBuffer);
 
-		/* Explicitly disable mipmap support because updateTexture() will only update the base level 0 */
-		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
-		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+		/*
+         * Core profile contexts have no GL_ALPHA8, so store the alpha in the red channel of a GL_R8 texture instead, and swizzle
+         * it back so the texture still samples as white with alpha, just like GL_ALPHA8 does.
+         */
+		if (internalFormat == GL30.GL_R8)
+			GL11.glTexParameteriv(GL11.GL_TEXTURE_2D, GL33.GL_TEXTURE_SWIZZLE_RGBA,
+					new int[]{GL11.GL_ONE, GL11.GL_ONE, GL11.GL_ONE, GL11.GL_RED});
+
+		/*
+		 * Explicitly disable mipmap support because updateTexture() will only update the base level 0. Distance fields are
+		 * filtered linearly, as interpolating between distances is exactly what lets them scale.
+		 */
+		final int filter = distanceField ? GL11.GL_LINEAR : GL11.GL_NEAREST;
+		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, filter);
+		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, filter);
+		if (distanceField)
+			FEATHER.markDistanceField(texture);
+	}
+
+	/**
+	 * @return GL_ALPHA8 on the legacy backend. On the core backend, GL_R8 if the context can swizzle it to look like GL_ALPHA8,
+	 * otherwise a full GL_RGBA8, as the pre-rendered glyph images are white anyways.
+	 */
+	private static int internalFormat() {
+		if (FEATHER.backend() != Feather.Backend.CORE)
+			return GL11.GL_ALPHA8;
+		final GLCapabilities caps = GL.getCapabilities();
+		return caps.OpenGL33 || caps.GL_ARB_texture_swizzle ? GL30.GL_R8 : GL11.GL_RGBA8;
 	}
 
 	/**
@@ -585,10 +893,11 @@ public class FontCache {
 	private void updateBuffer(int x, int y, int width, int height) {
 		glyphImage.getRGB(x, y, width, height, imageData, 0, width);
 
-		/* Swizzle each color integer from Java's ARGB format to OpenGL's RGBA */
+		/* Swizzle each color integer from Java's ARGB format to OpenGL's RGBA, or to pure alpha for a GL_R8 texture */
+		final boolean red = internalFormat == GL30.GL_R8;
 		for (int i = 0; i < width * height; i++) {
 			int color = imageData[i];
-			imageData[i] = (color << 8) | (color >>> 24);
+			imageData[i] = red ? color >>> 24 << 24 : (color << 8) | (color >>> 24);
 		}
 
 		imageBuffer.clear();
@@ -609,6 +918,221 @@ public class FontCache {
 	}
 
 
+	/*
+	 * Snapshots
+	 */
+
+	/**
+	 * Restores every glyph, atlas page, and Latin-1 metric written to the given directory by saveSnapshot() for this font, so
+	 * glyphs already seen on a previous run are never rasterized again. The file is read in one go, rather than memory-mapped, so
+	 * a stale snapshot can be deleted or replaced right away on every platform. Each page goes straight to an OpenGL texture. Must be called with the OpenGL context current, before anything has been cached.
+	 * <p>
+	 * Snapshots are keyed by the font's name, style, size, and rendering settings, along with the atlas layout, and are
+	 * checksummed. Kerning isn't part of the key, as it never changes a glyph's image or its Latin-1 metrics. A snapshot
+	 * that doesn't match, or that has been corrupted, is deleted and ignored, so the cache simply starts empty and a fresh
+	 * snapshot can be saved over it. Every part of the snapshot is parsed before anything is restored.
+	 *
+	 * @param directory the directory snapshots are kept in
+	 * @return whether a snapshot was restored
+	 */
+	public boolean loadSnapshot(Path directory) {
+		if (glyphTable.count() != 0)
+			throw new IllegalStateException("Snapshots can only be loaded into an empty FontCache");
+
+		final Path file = directory.resolve(snapshotName());
+		if (!Files.isRegularFile(file))
+			return false;
+
+		try {
+			final ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file)); // never mapped, so nothing keeps the file open once we're done.
+
+			/* Make sure the snapshot is ours, and intact, before touching anything */
+			if (in.getInt() != SNAPSHOT_MAGIC || in.getInt() != SNAPSHOT_VERSION || !snapshotKey().equals(readString(in)))
+				throw new IOException("Stale font snapshot");
+			final int length = in.getInt();
+			final long checksum = in.getLong();
+			if (length != in.remaining())
+				throw new IOException("Truncated font snapshot");
+			final CRC32 crc = new CRC32();
+			crc.update(in.slice());
+			if (crc.getValue() != checksum)
+				throw new IOException("Corrupt font snapshot");
+
+			/* Parse everything into throwaway copies first, so a malformed snapshot leaves us untouched */
+			final int payload = in.position();
+			final int pageCount = readSnapshot(in, new ArrayList<>(), new GlyphTable(256), new LongIntMap(256), new int[4][LATIN],
+					page -> page);
+			in.position(payload);
+
+			/* Upload the atlas pages first, as the glyph table refers to them by index */
+			final int cachedX = in.getInt(), cachedY = in.getInt(), cachedLineHeight = in.getInt();
+			in.getInt();
+			final int[] alpha = new int[TEXTURE_WIDTH * TEXTURE_HEIGHT];
+			for (int page = 0; page < pageCount; page++) {
+				if (page > 0)
+					allocateTexture();
+				for (int i = 0; i < alpha.length; i++)
+					alpha[i] = (in.get() & 0xFF) << 24 | 0xFFFFFF;
+				glyphImage.setRGB(0, 0, TEXTURE_WIDTH, TEXTURE_HEIGHT, alpha, 0, TEXTURE_WIDTH);
+				updateTexture(new Rectangle(0, 0, TEXTURE_WIDTH, TEXTURE_HEIGHT));
+			}
+			cacheX = cachedX;
+			cacheY = cachedY;
+			cacheLineHeight = cachedLineHeight;
+
+			in.position(payload);
+			readSnapshot(in, fontDescriptions, glyphTable, glyphCache, new int[][]{latinGlyphs, latinAdvances, latinX, latinY},
+					pages::get);
+			for (int font = 0; font < fontDescriptions.size(); font++)
+				fontIndices.put(fontDescriptions.get(font), font);
+			return true;
+		} catch (IOException | RuntimeException e) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException ignored) {
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the payload of a snapshot, skipping over its atlas pages, into the given font descriptions, glyph table,
+	 * glyph map, and Latin-1 metrics.
+	 *
+	 * @param in           the payload, positioned at its start
+	 * @param descriptions the list to add every font description to
+	 * @param table        the glyph table to add every glyph to
+	 * @param cache        the glyph map to put every glyph's key in
+	 * @param latin        the Latin-1 glyphs, advances, x offsets, and y offsets to fill
+	 * @param pageIds      maps the index of each glyph's atlas page to the page the glyph table should hold
+	 * @return the number of atlas pages in the snapshot
+	 */
+	private int readSnapshot(ByteBuffer in, List<String> descriptions, GlyphTable table, LongIntMap cache, int[][] latin,
+							 IntUnaryOperator pageIds) {
+		in.position(in.position() + 12);                // cacheX, cacheY, cacheLineHeight
+		final int pageCount = in.getInt();
+		in.position(in.position() + pageCount * TEXTURE_WIDTH * TEXTURE_HEIGHT);
+		for (int font = 0, fonts = in.getInt(); font < fonts; font++)
+			descriptions.add(readString(in));
+		table.read(in, page -> {
+			if (page < 0 || page >= pageCount)
+				throw new IndexOutOfBoundsException("Font snapshot glyph on missing page " + page);
+			return pageIds.applyAsInt(page);
+		});
+		cache.read(in);
+		for (int[] metrics : latin)
+			for (int ch = 0; ch < LATIN; ch++)
+				metrics[ch] = in.getInt();
+		return pageCount;
+	}
+
+	/**
+	 * Writes every glyph, atlas page, and Latin-1 metric cached so far to a snapshot in the given directory, to be restored
+	 * by loadSnapshot() on the next run. Replaces any snapshot saved before, atomically where the file system allows.
+	 *
+	 * @param directory the directory snapshots are kept in, created if need be
+	 * @return the original FontCache
+	 */
+	public FontCache saveSnapshot(Path directory) {
+		try {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream(pages.size() * TEXTURE_WIDTH * TEXTURE_HEIGHT + 4096);
+			final DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(cacheX);
+			out.writeInt(cacheY);
+			out.writeInt(cacheLineHeight);
+			out.writeInt(pages.size());
+			for (byte[] page : fullPages)
+				out.write(page);
+			out.write(pageAlpha());
+			out.writeInt(fontDescriptions.size());
+			for (String description : fontDescriptions)
+				writeString(out, description);
+			glyphTable.write(out, pages::indexOf);
+			glyphCache.write(out);
+			for (int[] latin : new int[][]{latinGlyphs, latinAdvances, latinX, latinY})
+				for (int ch = 0; ch < LATIN; ch++)
+					out.writeInt(latin[ch]);
+			out.flush();
+			final byte[] payload = bytes.toByteArray();
+			final CRC32 crc = new CRC32();
+			crc.update(payload);
+
+			final ByteArrayOutputStream file = new ByteArrayOutputStream(payload.length + 256);
+			final DataOutputStream header = new DataOutputStream(file);
+			header.writeInt(SNAPSHOT_MAGIC);
+			header.writeInt(SNAPSHOT_VERSION);
+			writeString(header, snapshotKey());
+			header.writeInt(payload.length);
+			header.writeLong(crc.getValue());
+			header.write(payload);
+			header.flush();
+
+			Files.createDirectories(directory);
+			final Path target = directory.resolve(snapshotName());
+			final Path temporary = directory.resolve(snapshotName() + ".tmp");
+			Files.write(temporary, file.toByteArray());
+			try {
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Couldn't save font snapshot", e);
+		}
+		return this;
+	}
+
+	/**
+	 * @return everything a snapshot has to match to be restored: the base font, the rendering settings glyphs are rasterized
+	 * with, and the atlas layout. The font's glyph count stands in for its version, as glyph codes are specific to a font file.
+	 */
+	private String snapshotKey() {
+		return describe(getFont()) + '|' + getFont().getNumGlyphs() + "|aa|integer-metrics|"
+				+ (distanceField ? "sdf" + SPREAD : "bitmap") + '|' + TEXTURE_WIDTH + 'x' + TEXTURE_HEIGHT;
+	}
+
+	/**
+	 * @return the name of this font's snapshot file, from its name, style, and size
+	 */
+	private String snapshotName() {
+		final Font font = getFont();
+		return (font.getName() + '-' + font.getStyle() + '-' + font.getSize2D() + (distanceField ? "-sdf" : ""))
+				.replaceAll("[^A-Za-z0-9.-]", "_") + ".atlas";
+	}
+
+	/**
+	 * @param font a font
+	 * @return a description of the font, identical for every Font object rasterizing the same glyphs. Kerning only moves
+	 * glyphs, so a kerned font shares its glyphs (and its snapshot) with the same font unkerned.
+	 */
+	private static String describe(Font font) {
+		return font.getName() + '|' + font.getStyle() + '|' + font.getSize2D();
+	}
+
+	/**
+	 * @return the alpha of the current page, one byte per pixel
+	 */
+	private byte[] pageAlpha() {
+		glyphImage.getRGB(0, 0, TEXTURE_WIDTH, TEXTURE_HEIGHT, imageData, 0, TEXTURE_WIDTH);
+		final byte[] alpha = new byte[TEXTURE_WIDTH * TEXTURE_HEIGHT];
+		for (int i = 0; i < alpha.length; i++)
+			alpha[i] = (byte) (imageData[i] >>> 24);
+		return alpha;
+	}
+
+	private static void writeString(DataOutputStream out, String str) throws IOException {
+		final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer in) {
+		final byte[] bytes = new byte[in.getInt()];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+
 	/*
 	 * Static Construction Methods
 	 */
@@ -619,7 +1143,19 @@ public class FontCache {
 	 * @return the Cache of the font passed
 	 */
 	public static FontCache from(Font font) {
-		FontCache cache = new FontCache();
+		FontCache cache = new FontCache(false);
+		cache.usedFonts.add(font);
+		return cache;
+	}
+
+	/**
+	 * Creates a FontCache of the requested Font object that caches glyphs as signed distance fields, generated from their outlines.
+	 * Drawn with distance field shading (see Feather.setDistanceField()), a single atlas serves the font at every size and zoom level.
+	 * @param font The Font to cache. A fairly large size (such as 32) gives the most accurate shapes.
+	 * @return the distance field Cache of the font passed
+	 */
+	public static FontCache fromDistanceField(Font font) {
+		FontCache cache = new FontCache(true);
 		cache.usedFonts.add(font);
 		return cache;
 	}
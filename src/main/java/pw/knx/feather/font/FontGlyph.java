@@ -1,11 +1,9 @@
 package pw.knx.feather.font;
 
-import pw.knx.feather.texture.Texture;
-
 /**
- * Identifies a single glyph in the laid-out string. Includes a reference to a Texture Object with the OpenGL texture ID
- * and position of the pre-rendered glyph image, and includes the x/y pixel coordinates of where this glyph occurs within
- * the string to which this Glyph object belongs.
+ * Identifies a single glyph in the laid-out string. Refers to the glyph's entry in FontCache's Glyph Table, holding the
+ * OpenGL texture ID and position of the pre-rendered glyph image, and includes the x/y pixel coordinates of where this
+ * glyph occurs within the string to which this Glyph object belongs.
  *
  * @author KNOXDEV
  * @since 6/8/2017 5:35 PM
@@ -18,23 +16,75 @@ public class FontGlyph implements Comparable<FontGlyph> {
 	public final int x, y;
 
 	/**
-	 * Texture ID and position/size of the glyph's pre-rendered image within the cache texture.
+	 * The Glyph Table holding the glyph's pre-rendered image, and the glyph's index within it
 	 */
-	public final Texture texture;
+	private final GlyphTable table;
+	final int index;
 
 	/**
 	 * Your standard constructor. See class documentation for details.
 	 *
-	 * @param texture Texture ID and position/size of the glyph's pre-rendered image within the cache texture
-	 * @param x       Glyph's horizontal position (in pixels) relative to the entire string's baseline
-	 * @param y       Glyph's vertical position (in pixels) relative to the entire string's baseline
+	 * @param table The Glyph Table holding the glyph's pre-rendered image
+	 * @param index The glyph's index within the table
+	 * @param x     Glyph's horizontal position (in pixels) relative to the entire string's baseline
+	 * @param y     Glyph's vertical position (in pixels) relative to the entire string's baseline
 	 */
-	FontGlyph(Texture texture, int x, int y) {
-		this.texture = texture;
+	FontGlyph(GlyphTable table, int index, int x, int y) {
+		this.table = table;
+		this.index = index;
 		this.x = x;
 		this.y = y;
 	}
 
+	/**
+	 * @return the OpenGL ID of the texture holding the glyph's pre-rendered image
+	 */
+	public int texture() {
+		return table.page(index);
+	}
+
+	/**
+	 * @return the horizontal texture coordinate of the image's top-left corner
+	 */
+	public float u() {
+		return table.u(index);
+	}
+
+	/**
+	 * @return the vertical texture coordinate of the image's top-left corner
+	 */
+	public float v() {
+		return table.v(index);
+	}
+
+	/**
+	 * @return the horizontal texture coordinate of the image's bottom-right corner
+	 */
+	public float u1() {
+		return table.u1(index);
+	}
+
+	/**
+	 * @return the vertical texture coordinate of the image's bottom-right corner
+	 */
+	public float v1() {
+		return table.v1(index);
+	}
+
+	/**
+	 * @return the width of the image in pixels
+	 */
+	public int width() {
+		return table.width(index);
+	}
+
+	/**
+	 * @return the height of the image in pixels
+	 */
+	public int height() {
+		return table.height(index);
+	}
+
 	/**
 	 * Allows arrays of Glyph objects to be sorted. Performs numeric comparison on texture ID.
 	 *
@@ -43,6 +93,6 @@ public class FontGlyph implements Comparable<FontGlyph> {
 	 */
 	@Override
 	public int compareTo(FontGlyph o) {
-		return (this.texture.id() == o.texture.id()) ? 0 : 1;
+		return Integer.compare(texture(), o.texture());
 	}
 }
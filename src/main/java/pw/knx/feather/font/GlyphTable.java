@@ -0,0 +1,156 @@
+package pw.knx.feather.font;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A packed table of every glyph image FontCache has pre-rendered, stored in primitive arrays rather than one object per glyph.
+ * <p>
+ * Each glyph is identified by its index in the table, and is stored as its texture coordinates, its size in pixels,
+ * and the atlas page (the OpenGL texture) its image lives on. That's 28 bytes per glyph, with no object headers or references.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 18:27
+ */
+class GlyphTable {
+
+	/**
+	 * The texture coordinates of each glyph: u, v, u1, v1
+	 */
+	private float[] uvs;
+
+	/**
+	 * The size of each glyph in pixels: width, height
+	 */
+	private short[] sizes;
+
+	/**
+	 * The OpenGL ID of the atlas page each glyph lives on
+	 */
+	private int[] pages;
+
+	/**
+	 * The number of glyphs in the table
+	 */
+	private int count;
+
+	/**
+	 * Constructs a Glyph Table. It grows as needed.
+	 *
+	 * @param capacity the number of glyphs to make room for to start with
+	 */
+	GlyphTable(int capacity) {
+		capacity = Math.max(capacity, 16);
+		this.uvs = new float[capacity * 4];
+		this.sizes = new short[capacity * 2];
+		this.pages = new int[capacity];
+	}
+
+	/**
+	 * Adds a glyph to the table, from its pixel bounds within its atlas page.
+	 *
+	 * @param x          the x coordinate of the glyph's image within its page, in pixels
+	 * @param y          the y coordinate of the glyph's image within its page, in pixels
+	 * @param width      the width of the glyph's image, in pixels
+	 * @param height     the height of the glyph's image, in pixels
+	 * @param dimensions the width and height of the page, in pixels
+	 * @param page       the OpenGL ID of the page
+	 * @return the glyph's index in the table
+	 */
+	int add(int x, int y, int width, int height, int dimensions, int page) {
+		final float scale = 1f / dimensions;
+		return add(x * scale, y * scale, (x + width) * scale, (y + height) * scale, width, height, page);
+	}
+
+	/**
+	 * Adds a glyph to the table, exactly as it was stored before. Used to restore a table written by write().
+	 *
+	 * @return the glyph's index in the table
+	 */
+	int add(float u, float v, float u1, float v1, int width, int height, int page) {
+		if (this.count == this.pages.length) {
+			this.uvs = Arrays.copyOf(this.uvs, this.count * 8);
+			this.sizes = Arrays.copyOf(this.sizes, this.count * 4);
+			this.pages = Arrays.copyOf(this.pages, this.count * 2);
+		}
+		final int glyph = this.count++;
+		this.uvs[glyph * 4] = u;
+		this.uvs[glyph * 4 + 1] = v;
+		this.uvs[glyph * 4 + 2] = u1;
+		this.uvs[glyph * 4 + 3] = v1;
+		this.sizes[glyph * 2] = (short) width;
+		this.sizes[glyph * 2 + 1] = (short) height;
+		this.pages[glyph] = page;
+		return glyph;
+	}
+
+	/**
+	 * Writes every glyph in the table, in order, to be restored by read().
+	 *
+	 * @param out  the stream to write to
+	 * @param page maps each glyph's page to what should be written in its place, as OpenGL IDs won't survive a restart
+	 */
+	void write(DataOutputStream out, IntUnaryOperator page) throws IOException {
+		out.writeInt(this.count);
+		for (int glyph = 0; glyph < this.count; glyph++) {
+			for (int i = 0; i < 4; i++)
+				out.writeFloat(this.uvs[glyph * 4 + i]);
+			out.writeShort(this.sizes[glyph * 2]);
+			out.writeShort(this.sizes[glyph * 2 + 1]);
+			out.writeInt(page.applyAsInt(this.pages[glyph]));
+		}
+	}
+
+	/**
+	 * Adds every glyph written by write(), in order.
+	 *
+	 * @param in   the buffer to read from
+	 * @param page maps each written page back to the OpenGL ID of the page
+	 */
+	void read(ByteBuffer in, IntUnaryOperator page) {
+		for (int glyph = 0, count = in.getInt(); glyph < count; glyph++)
+			add(in.getFloat(), in.getFloat(), in.getFloat(), in.getFloat(), in.getShort(), in.getShort(), page.applyAsInt(in.getInt()));
+	}
+
+	/*
+	 * Accessors - each takes the glyph's index in the table
+	 */
+
+	float u(int glyph) {
+		return this.uvs[glyph * 4];
+	}
+
+	float v(int glyph) {
+		return this.uvs[glyph * 4 + 1];
+	}
+
+	float u1(int glyph) {
+		return this.uvs[glyph * 4 + 2];
+	}
+
+	float v1(int glyph) {
+		return this.uvs[glyph * 4 + 3];
+	}
+
+	int width(int glyph) {
+		return this.sizes[glyph * 2];
+	}
+
+	int height(int glyph) {
+		return this.sizes[glyph * 2 + 1];
+	}
+
+	int page(int glyph) {
+		return this.pages[glyph];
+	}
+
+	/**
+	 * @return the number of glyphs in the table
+	 */
+	int count() {
+		return this.count;
+	}
+}
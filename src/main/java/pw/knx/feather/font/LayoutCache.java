@@ -0,0 +1,189 @@
+package pw.knx.feather.font;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used cache of string layouts, keyed by the content of each string.
+ * <p>
+ * Every layout looked up is moved to the back of the line, and whenever the cache holds more entries, or more bytes,
+ * than it's allowed, the layouts at the front of the line (those drawn least recently) are evicted until it doesn't.
+ * Strings drawn every frame therefore stay cached however they were built, and strings that stop being drawn
+ * eventually make room, however long they're kept referenced elsewhere.
+ * <p>
+ * Sizes in bytes are estimates of the heap taken up by each string, its layout, and its glyphs, on a typical 64 bit JVM.
+ * The hit, miss, and eviction counters are there for tuning both limits under real load.
+ * <p>
+ * Like the rest of FontCache, this cache is only meant to be used from the OpenGL thread.
+ * <p>
+ * The voids in this class return the Layout Cache object for easy method chaining.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 18:03
+ */
+public class LayoutCache {
+
+	/**
+	 * The cached layouts, in order of access, least recent first
+	 */
+	private final LinkedHashMap<String, GlyphLayout> layouts = new LinkedHashMap<>(64, 0.75f, true);
+
+	/**
+	 * The maximum number of layouts we may hold
+	 */
+	private int maxEntries;
+
+	/**
+	 * The maximum estimated size, in bytes, of the layouts we may hold, and their current estimated size
+	 */
+	private long maxBytes, bytes;
+
+	/**
+	 * Our metrics: lookups that found a layout, lookups that didn't, and layouts evicted to stay within our limits
+	 */
+	private long hits, misses, evictions;
+
+	/**
+	 * Constructs a Layout Cache. See Class Documentation for more information.
+	 *
+	 * @param maxEntries The maximum number of layouts to hold
+	 * @param maxBytes   The maximum estimated size, in bytes, of the layouts to hold
+	 */
+	LayoutCache(int maxEntries, long maxBytes) {
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Looks up the layout of a string, marking it as the most recently used.
+	 *
+	 * @param str the string to look up
+	 * @return the string's layout, or null if it isn't cached
+	 */
+	public GlyphLayout get(String str) {
+		final GlyphLayout layout = this.layouts.get(str);
+		if (layout == null)
+			this.misses++;
+		else
+			this.hits++;
+		return layout;
+	}
+
+	/**
+	 * Caches the layout of a string, evicting the least recently used layouts if we're over our limits afterwards.
+	 *
+	 * @param str    the string that was laid out
+	 * @param layout the string's layout
+	 * @return The original Layout Cache
+	 */
+	public LayoutCache put(String str, GlyphLayout layout) {
+		final GlyphLayout old = this.layouts.put(str, layout);
+		if (old != null)
+			this.bytes -= sizeOf(str, old);
+		this.bytes += sizeOf(str, layout);
+		return trim();
+	}
+
+	/**
+	 * @param maxEntries The maximum number of layouts to hold. Layouts over the limit are evicted right away.
+	 * @return The original Layout Cache
+	 */
+	public LayoutCache setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+		return trim();
+	}
+
+	/**
+	 * @param maxBytes The maximum estimated size, in bytes, of the layouts to hold. Layouts over the limit are evicted right away.
+	 * @return The original Layout Cache
+	 */
+	public LayoutCache setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		return trim();
+	}
+
+	/**
+	 * Evicts every layout, without counting them as evictions.
+	 *
+	 * @return The original Layout Cache
+	 */
+	public LayoutCache clear() {
+		this.layouts.clear();
+		this.bytes = 0;
+		return this;
+	}
+
+	/**
+	 * Resets the hit, miss, and eviction counters to 0.
+	 *
+	 * @return The original Layout Cache
+	 */
+	public LayoutCache resetCounters() {
+		this.hits = this.misses = this.evictions = 0;
+		return this;
+	}
+
+	/**
+	 * @return the number of layouts held
+	 */
+	public int size() {
+		return this.layouts.size();
+	}
+
+	/**
+	 * @return the estimated size, in bytes, of the layouts held
+	 */
+	public long bytes() {
+		return this.bytes;
+	}
+
+	/**
+	 * @return the number of lookups that found a layout since the counters were last reset
+	 */
+	public long hits() {
+		return this.hits;
+	}
+
+	/**
+	 * @return the number of lookups that didn't find a layout since the counters were last reset
+	 */
+	public long misses() {
+		return this.misses;
+	}
+
+	/**
+	 * @return the number of layouts evicted to stay within our limits since the counters were last reset
+	 */
+	public long evictions() {
+		return this.evictions;
+	}
+
+	/**
+	 * Evicts the least recently used layouts until we're within both our limits.
+	 *
+	 * @return The original Layout Cache
+	 */
+	private LayoutCache trim() {
+		final Iterator<Map.Entry<String, GlyphLayout>> eldest = this.layouts.entrySet().iterator();
+		while ((this.layouts.size() > this.maxEntries || this.bytes > this.maxBytes) && eldest.hasNext()) {
+			final Map.Entry<String, GlyphLayout> entry = eldest.next();
+			this.bytes -= sizeOf(entry.getKey(), entry.getValue());
+			eldest.remove();
+			this.evictions++;
+		}
+		return this;
+	}
+
+	/**
+	 * Estimates the heap taken up by a cached layout: the map entry, the string and its characters,
+	 * the layout and its glyph array, and each glyph. The glyphs' images live in the shared Glyph Table, so they're left out.
+	 *
+	 * @param str    the string that was laid out
+	 * @param layout the string's layout
+	 * @return the estimated size in bytes
+	 */
+	static long sizeOf(String str, GlyphLayout layout) {
+		return 40 + (40 + 2L * str.length()) + (24 + 16 + 4L * layout.glyphs.length) + 32L * layout.glyphs.length;
+	}
+}
@@ -0,0 +1,152 @@
+package pw.knx.feather.structures;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive long keys to primitive int values.
+ * FontCache maps its glyph keys to glyph slots with one, and the Frame Batch maps each state to its latest batch.
+ * <p>
+ * Entries are stored by open addressing with linear probing in two parallel arrays, so looking a key up never
+ * boxes it or allocates anything, and each entry costs twelve bytes rather than a HashMap node, a Long, and an Integer.
+ * Values must not be negative, as a negative value marks an empty slot. Entries can't be removed one at a time,
+ * but the whole map can be emptied without giving up its arrays.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 18:29
+ */
+public class LongIntMap {
+
+	/**
+	 * The keys of our entries, by slot
+	 */
+	private long[] keys;
+
+	/**
+	 * The values of our entries, by slot, or -1 for empty slots
+	 */
+	private int[] values;
+
+	/**
+	 * The number of entries held, and the number we can hold before growing
+	 */
+	private int size, threshold;
+
+	/**
+	 * Constructs a Long Int Map. It grows as needed.
+	 *
+	 * @param capacity the number of entries to make room for to start with
+	 */
+	public LongIntMap(int capacity) {
+		allocate(Integer.highestOneBit(Math.max(capacity * 2 - 1, 8)) << 1);
+	}
+
+	/**
+	 * @param key the key to look up
+	 * @return the value mapped to the key, or -1 if there isn't one
+	 */
+	public int get(long key) {
+		final long[] keys = this.keys;
+		final int[] values = this.values;
+		final int mask = keys.length - 1;
+		for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+			if (values[slot] < 0)
+				return -1;
+			if (keys[slot] == key)
+				return values[slot];
+		}
+	}
+
+	/**
+	 * Maps a key to a value, replacing any value it was mapped to before.
+	 *
+	 * @param key   the key to map
+	 * @param value the value to map it to, which must not be negative
+	 */
+	public void put(long key, int value) {
+		final int mask = this.keys.length - 1;
+		int slot = slot(key, mask);
+		while (this.values[slot] >= 0 && this.keys[slot] != key)
+			slot = (slot + 1) & mask;
+		if (this.values[slot] < 0 && ++this.size > this.threshold) {
+			grow();
+			put(key, value);
+			return;
+		}
+		this.keys[slot] = key;
+		this.values[slot] = value;
+	}
+
+	/**
+	 * Writes every entry, to be restored by read().
+	 *
+	 * @param out the stream to write to
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(this.size);
+		for (int slot = 0; slot < this.keys.length; slot++) {
+			if (this.values[slot] >= 0) {
+				out.writeLong(this.keys[slot]);
+				out.writeInt(this.values[slot]);
+			}
+		}
+	}
+
+	/**
+	 * Puts every entry written by write().
+	 *
+	 * @param in the buffer to read from
+	 */
+	public void read(ByteBuffer in) {
+		for (int entry = 0, count = in.getInt(); entry < count; entry++)
+			put(in.getLong(), in.getInt());
+	}
+
+	/**
+	 * @return the number of entries held
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Removes every entry, keeping our capacity.
+	 */
+	public void clear() {
+		Arrays.fill(this.values, -1);
+		this.size = 0;
+	}
+
+	/**
+	 * Doubles our capacity, placing every entry again.
+	 */
+	private void grow() {
+		final long[] keys = this.keys;
+		final int[] values = this.values;
+		allocate(keys.length * 2);
+		for (int slot = 0; slot < keys.length; slot++)
+			if (values[slot] >= 0)
+				put(keys[slot], values[slot]);
+	}
+
+	/**
+	 * Empties the map, with the given number of slots. Up to three quarters of them may be filled before growing again.
+	 */
+	private void allocate(int slots) {
+		this.keys = new long[slots];
+		this.values = new int[slots];
+		Arrays.fill(this.values, -1);
+		this.size = 0;
+		this.threshold = slots / 4 * 3;
+	}
+
+	/**
+	 * Spreads a key across our slots. Keys often pack small numbers into both halves, so every bit has to be mixed in.
+	 */
+	private static int slot(long key, int mask) {
+		final long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+}
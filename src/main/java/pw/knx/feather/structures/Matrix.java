@@ -0,0 +1,234 @@
+package pw.knx.feather.structures;
+
+import java.util.Arrays;
+
+/**
+ * A 3D affine transformation, applied to vertices on the CPU as they're entered into a Tessellator.
+ * <p>
+ * Transformations are combined exactly as OpenGL's own matrix stack combines them: each one is applied to
+ * vertices before every transformation made earlier, so translating and then scaling scales about the translated origin.
+ * <p>
+ * Most user interfaces only ever translate, so the matrix keeps track of whether it's a pure translation,
+ * in which case transforming a vertex is just three additions rather than nine multiplications.
+ * <p>
+ * The voids in this class return the Matrix object for easy method chaining.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 17:41
+ */
+public class Matrix {
+
+	/**
+	 * The top three rows of the matrix, in row-major order. The bottom row is always 0, 0, 0, 1.
+	 */
+	private final float[] m = new float[12];
+
+	/**
+	 * Whether the matrix is a pure translation, its top-left 3x3 being the identity
+	 */
+	private boolean translation;
+
+	/**
+	 * Whether the matrix keeps axis-aligned rectangles on the x-y plane axis-aligned, as translation and scaling do
+	 */
+	private boolean aligned;
+
+	/**
+	 * Constructs an identity Matrix.
+	 */
+	public Matrix() {
+		identity();
+	}
+
+	/**
+	 * Constructs a copy of another Matrix.
+	 *
+	 * @param matrix the Matrix to copy
+	 */
+	public Matrix(Matrix matrix) {
+		set(matrix);
+	}
+
+	/**
+	 * Resets the matrix to the identity, which leaves vertices alone.
+	 *
+	 * @return The original Matrix
+	 */
+	public Matrix identity() {
+		Arrays.fill(this.m, 0);
+		this.m[0] = this.m[5] = this.m[10] = 1;
+		this.translation = this.aligned = true;
+		return this;
+	}
+
+	/**
+	 * @param matrix the Matrix to copy into this one
+	 * @return The original Matrix
+	 */
+	public Matrix set(Matrix matrix) {
+		System.arraycopy(matrix.m, 0, this.m, 0, 12);
+		this.translation = matrix.translation;
+		this.aligned = matrix.aligned;
+		return this;
+	}
+
+	/**
+	 * Applies a translation before this matrix.
+	 *
+	 * @return The original Matrix
+	 */
+	public Matrix translate(float x, float y, float z) {
+		final float[] m = this.m;
+		if (this.translation) {
+			m[3] += x;
+			m[7] += y;
+			m[11] += z;
+			return this;
+		}
+		m[3] += m[0] * x + m[1] * y + m[2] * z;
+		m[7] += m[4] * x + m[5] * y + m[6] * z;
+		m[11] += m[8] * x + m[9] * y + m[10] * z;
+		return this;
+	}
+
+	/**
+	 * Applies a scale before this matrix.
+	 *
+	 * @return The original Matrix
+	 */
+	public Matrix scale(float x, float y, float z) {
+		if (x == 1 && y == 1 && z == 1)
+			return this;
+		final float[] m = this.m;
+		for (int row = 0; row < 12; row += 4) {
+			m[row] *= x;
+			m[row + 1] *= y;
+			m[row + 2] *= z;
+		}
+		this.translation = false;
+		return this;
+	}
+
+	/**
+	 * Applies a rotation about the z axis before this matrix, which rotates the x-y plane the user interface is drawn on.
+	 *
+	 * @param degrees the angle to rotate by, clockwise on screen when the y axis points down
+	 * @return The original Matrix
+	 */
+	public Matrix rotate(float degrees) {
+		return rotate(degrees, 0, 0, 1);
+	}
+
+	/**
+	 * Applies a rotation about an arbitrary axis before this matrix, just like glRotatef().
+	 *
+	 * @param degrees the angle to rotate by
+	 * @param x       the x component of the axis
+	 * @param y       the y component of the axis
+	 * @param z       the z component of the axis
+	 * @return The original Matrix
+	 */
+	public Matrix rotate(float degrees, float x, float y, float z) {
+		final float length = (float) Math.sqrt(x * x + y * y + z * z);
+		if (degrees == 0 || length == 0)
+			return this;
+		x /= length;
+		y /= length;
+		z /= length;
+		final float radians = (float) Math.toRadians(degrees);
+		final float c = (float) Math.cos(radians), s = (float) Math.sin(radians), t = 1 - c;
+		multiply(x * x * t + c, x * y * t - z * s, x * z * t + y * s,
+				y * x * t + z * s, y * y * t + c, y * z * t - x * s,
+				z * x * t - y * s, z * y * t + x * s, z * z * t + c);
+		return this;
+	}
+
+	/**
+	 * Applies another matrix before this one.
+	 *
+	 * @param matrix the Matrix to apply
+	 * @return The original Matrix
+	 */
+	public Matrix multiply(Matrix matrix) {
+		final float[] o = matrix.m;
+		translate(o[3], o[7], o[11]);
+		if (!matrix.translation)
+			multiply(o[0], o[1], o[2], o[4], o[5], o[6], o[8], o[9], o[10]);
+		return this;
+	}
+
+	/**
+	 * Multiplies our top-left 3x3 by the one given, on the right.
+	 */
+	private void multiply(float a00, float a01, float a02, float a10, float a11, float a12, float a20, float a21, float a22) {
+		final float[] m = this.m;
+		for (int row = 0; row < 12; row += 4) {
+			final float r0 = m[row], r1 = m[row + 1], r2 = m[row + 2];
+			m[row] = r0 * a00 + r1 * a10 + r2 * a20;
+			m[row + 1] = r0 * a01 + r1 * a11 + r2 * a21;
+			m[row + 2] = r0 * a02 + r1 * a12 + r2 * a22;
+		}
+		this.translation = m[0] == 1 && m[1] == 0 && m[2] == 0 && m[4] == 0 && m[5] == 1 && m[6] == 0
+				&& m[8] == 0 && m[9] == 0 && m[10] == 1;
+		this.aligned = m[1] == 0 && m[4] == 0;
+	}
+
+	/**
+	 * @return the x coordinate of the vertex (x, y, z) once transformed
+	 */
+	public float transformX(float x, float y, float z) {
+		final float[] m = this.m;
+		return this.translation ? x + m[3] : m[0] * x + m[1] * y + m[2] * z + m[3];
+	}
+
+	/**
+	 * @return the y coordinate of the vertex (x, y, z) once transformed
+	 */
+	public float transformY(float x, float y, float z) {
+		final float[] m = this.m;
+		return this.translation ? y + m[7] : m[4] * x + m[5] * y + m[6] * z + m[7];
+	}
+
+	/**
+	 * @return the z coordinate of the vertex (x, y, z) once transformed
+	 */
+	public float transformZ(float x, float y, float z) {
+		final float[] m = this.m;
+		return this.translation ? z + m[11] : m[8] * x + m[9] * y + m[10] * z + m[11];
+	}
+
+	/**
+	 * @return whether the matrix is a pure translation
+	 */
+	public boolean isTranslation() {
+		return this.translation;
+	}
+
+	/**
+	 * @return whether the matrix keeps rectangles on the x-y plane axis-aligned, so transforming two opposite corners is enough
+	 */
+	public boolean isAxisAligned() {
+		return this.aligned;
+	}
+
+	/**
+	 * @return the translation along the x axis
+	 */
+	public float translationX() {
+		return this.m[3];
+	}
+
+	/**
+	 * @return the translation along the y axis
+	 */
+	public float translationY() {
+		return this.m[7];
+	}
+
+	/**
+	 * @return the translation along the z axis
+	 */
+	public float translationZ() {
+		return this.m[11];
+	}
+}
@@ -0,0 +1,138 @@
+package pw.knx.feather.structures;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GLCapabilities;
+import pw.knx.feather.Feather;
+import pw.knx.feather.tessellate.QuadIndices;
+import pw.knx.feather.tessellate.VertexFormat;
+
+import static pw.knx.feather.Feather.FEATHER;
+
+/**
+ * A retained, drawable copy of a Tessellator's contents, living entirely on the GPU.
+ * <p>
+ * Static geometry such as panel backgrounds and borders needn't be tessellated again every frame.
+ * Compile it once with Tessellator.compile(), and every draw afterwards costs one bind and one draw call.
+ * Unlike the VBO class, a Mesh carries the full vertex layout of the Tessellator it was compiled from,
+ * colors, texture coordinates and all.
+ * <p>
+ * Where the context supports VertexArrayObjects (OpenGL 3.0 or ARB_vertex_array_object), the Mesh's
+ * pointers and client states are recorded into one, and the Mesh is drawn by binding it. Otherwise the
+ * pointers are set up, and the client states enabled and disabled again, on each draw.
+ * On Feather's core backend, the Mesh is drawn with the matching built-in shader program.
+ * <p>
+ * The voids in this class return the Mesh object for easy method chaining.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 13:52
+ */
+public class Mesh {
+
+	/**
+	 * The OpenGL ID of the buffer object holding our vertices
+	 */
+	private final int buffer;
+
+	/**
+	 * The OpenGL ID of the vertex array object recording our layout, or 0 if unsupported
+	 */
+	private final int vao;
+
+	/**
+	 * The layout of every vertex in our buffer object
+	 */
+	private final VertexFormat format;
+
+	/**
+	 * The number of vertices in our buffer object
+	 */
+	private final int count;
+
+	/**
+	 * Whether color and texture data were entered into the Tessellator we were compiled from
+	 */
+	private final boolean color, texture;
+
+	/**
+	 * Constructs a Mesh around a buffer object that has already been filled.
+	 * You probably want to use Tessellator.compile() rather than this.
+	 *
+	 * @param buffer  the OpenGL ID of the buffer object holding our vertices
+	 * @param format  the layout of every vertex in the buffer object
+	 * @param count   the number of vertices in the buffer object
+	 * @param color   whether color data was entered, and should be drawn
+	 * @param texture whether texture data was entered, and should be drawn
+	 */
+	public Mesh(int buffer, VertexFormat format, int count, boolean color, boolean texture) {
+		this.buffer = buffer;
+		this.format = format;
+		this.count = count;
+		this.color = color;
+		this.texture = texture;
+
+		final GLCapabilities caps = GL.getCapabilities();
+		if (caps.OpenGL30 || caps.GL_ARB_vertex_array_object) {
+			this.vao = GL30.glGenVertexArrays();
+			FEATHER.bindVertexArray(this.vao);
+			setup();
+			FEATHER.bindVertexArray(0);
+		} else {
+			this.vao = 0;
+		}
+	}
+
+	/**
+	 * Points OpenGL at our buffer object and enables the client states our layout needs.
+	 */
+	private void setup() {
+		FEATHER.bindBuffer(this.buffer);
+		this.format.pointers(0L, this.color, this.texture);
+		FEATHER.bindBuffer(0);                      // the pointers remember our buffer object, so it needn't stay bound.
+		this.format.arrays(true, this.color, this.texture);
+	}
+
+	/**
+	 * Draws the Mesh. Quads are drawn as triangles through the shared QuadIndices buffer.
+	 *
+	 * @param mode The OpenGL mode to render with.
+	 * @return The original Mesh
+	 */
+	public Mesh draw(int mode) {
+		if (this.vao != 0)
+			FEATHER.bindVertexArray(this.vao);
+		else
+			setup();
+		if (FEATHER.backend() == Feather.Backend.CORE)
+			(this.texture ? FEATHER.textureShading() : Shading.COLORED).use();
+
+		if (mode == GL11.GL_QUADS)
+			QuadIndices.draw(this.count);
+		else
+			GL11.glDrawArrays(mode, 0, this.count);
+
+		if (this.vao != 0)
+			FEATHER.bindVertexArray(0);
+		else
+			this.format.arrays(false, this.color, this.texture);
+		return this;
+	}
+
+	/**
+	 * @return the number of vertices in this Mesh
+	 */
+	public int count() {
+		return this.count;
+	}
+
+	/**
+	 * Deletes the buffer object and vertex array object behind this Mesh.
+	 * The Mesh can no longer be drawn after this method is executed.
+	 */
+	public void delete() {
+		if (this.vao != 0)
+			GL30.glDeleteVertexArrays(this.vao);
+		FEATHER.deleteBuffer(this.buffer);
+	}
+}
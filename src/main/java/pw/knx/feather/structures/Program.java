@@ -0,0 +1,198 @@
+package pw.knx.feather.structures;
+
+import pw.knx.feather.Feather;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL20.*;
+import static pw.knx.feather.Feather.FEATHER;
+
+/**
+ * A simple OpenGL shader program: one vertex shader and one fragment shader, linked together.
+ * <p>
+ * Vertex attributes are bound to fixed locations before linking, in the order their names are given,
+ * so the same vertex layout can be shared between programs. Uniform locations are looked up once and
+ * remembered.
+ * <p>
+ * Programs created with from() are written once for both of Feather's backends. A header is prepended to their
+ * sources, declaring GLSL 1.20 on the legacy backend and GLSL 1.50 on the core backend, along with a handful of macros
+ * that paper over the differences: ATTRIBUTE, VARYING, TEXTURE (the sampling function), FRAG_COLOR (the output color),
+ * and PROJECTION (the matrix vertices are transformed by).
+ * <p>
+ * The setters in this class return the Program object for easy method chaining.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 14:16
+ */
+public class Program {
+
+	/**
+	 * The headers prepended to vertex shaders written for both backends
+	 */
+	private static final String LEGACY_VERTEX = "#version 120\n"
+			+ "#define ATTRIBUTE attribute\n"
+			+ "#define VARYING varying\n"
+			+ "#define PROJECTION gl_ModelViewProjectionMatrix\n",
+			CORE_VERTEX = "#version 150\n"
+					+ "#define ATTRIBUTE in\n"
+					+ "#define VARYING out\n"
+					+ "uniform mat4 projection;\n"
+					+ "#define PROJECTION projection\n";
+
+	/**
+	 * The headers prepended to fragment shaders written for both backends
+	 */
+	private static final String LEGACY_FRAGMENT = "#version 120\n"
+			+ "#define VARYING varying\n"
+			+ "#define TEXTURE texture2D\n"
+			+ "#define FRAG_COLOR gl_FragColor\n",
+			CORE_FRAGMENT = "#version 150\n"
+					+ "#define VARYING in\n"
+					+ "#define TEXTURE texture\n"
+					+ "out vec4 fragColor;\n"
+					+ "#define FRAG_COLOR fragColor\n";
+
+	/**
+	 * The program's OpenGL ID, for binding this object to.
+	 */
+	private final int id;
+
+	/**
+	 * The locations of every uniform we've looked up so far
+	 */
+	private final Map<String, Integer> uniforms = new HashMap<>();
+
+	/**
+	 * Compiles and links a shader program.
+	 *
+	 * @param vertex     the GLSL source of the vertex shader
+	 * @param fragment   the GLSL source of the fragment shader
+	 * @param attributes the names of the vertex attributes, each bound to the location of its index
+	 */
+	public Program(String vertex, String fragment, String... attributes) {
+		final int vert = compile(GL_VERTEX_SHADER, vertex);
+		final int frag = compile(GL_FRAGMENT_SHADER, fragment);
+		this.id = glCreateProgram();
+		glAttachShader(this.id, vert);
+		glAttachShader(this.id, frag);
+		for (int i = 0; i < attributes.length; i++)
+			glBindAttribLocation(this.id, i, attributes[i]);
+		glLinkProgram(this.id);
+
+		/* Once linked, the program no longer needs its shaders */
+		glDetachShader(this.id, vert);
+		glDetachShader(this.id, frag);
+		glDeleteShader(vert);
+		glDeleteShader(frag);
+
+		if (glGetProgrami(this.id, GL_LINK_STATUS) == GL_FALSE) {
+			final String log = glGetProgramInfoLog(this.id);
+			glDeleteProgram(this.id);
+			throw new IllegalStateException("Failed to link shader program: " + log);
+		}
+	}
+
+	/**
+	 * Compiles and links a shader program written for both of Feather's backends. See Class Documentation.
+	 * Must be called after Feather.init().
+	 *
+	 * @param vertex     the GLSL source of the vertex shader, without a version
+	 * @param fragment   the GLSL source of the fragment shader, without a version
+	 * @param attributes the names of the vertex attributes, each bound to the location of its index
+	 * @return the linked Program
+	 */
+	public static Program from(String vertex, String fragment, String... attributes) {
+		final boolean core = FEATHER.backend() == Feather.Backend.CORE;
+		return new Program((core ? CORE_VERTEX : LEGACY_VERTEX) + vertex,
+				(core ? CORE_FRAGMENT : LEGACY_FRAGMENT) + fragment, attributes);
+	}
+
+	/**
+	 * @param type   the type of shader to compile
+	 * @param source the GLSL source of the shader
+	 * @return the OpenGL ID of the compiled shader
+	 */
+	private static int compile(int type, String source) {
+		final int shader = glCreateShader(type);
+		glShaderSource(shader, source);
+		glCompileShader(shader);
+		if (glGetShaderi(shader, GL_COMPILE_STATUS) == GL_FALSE) {
+			final String log = glGetShaderInfoLog(shader);
+			glDeleteShader(shader);
+			throw new IllegalStateException("Failed to compile shader: " + log);
+		}
+		return shader;
+	}
+
+	/**
+	 * @return the program's OpenGL ID
+	 */
+	public int id() {
+		return this.id;
+	}
+
+	/**
+	 * Makes this the active program. On the core backend, Feather's projection matrix is passed along as well.
+	 *
+	 * @return The original Program
+	 */
+	public Program use() {
+		FEATHER.useProgram(this.id);
+		if (FEATHER.backend() == Feather.Backend.CORE)
+			set("projection", FEATHER.projection());
+		return this;
+	}
+
+	/**
+	 * @param name the name of the uniform
+	 * @return the location of the uniform, or -1 if the program has no such (active) uniform
+	 */
+	public int uniform(String name) {
+		return this.uniforms.computeIfAbsent(name, uniform -> glGetUniformLocation(this.id, uniform));
+	}
+
+	/**
+	 * Sets a uniform of the program. The program must be in use.
+	 *
+	 * @param name  the name of the uniform
+	 * @param value the value to set it to
+	 * @return The original Program
+	 */
+	public Program set(String name, int value) {
+		glUniform1i(uniform(name), value);
+		return this;
+	}
+
+	/**
+	 * Sets a uniform of the program. The program must be in use.
+	 *
+	 * @param name  the name of the uniform
+	 * @param value the value to set it to
+	 * @return The original Program
+	 */
+	public Program set(String name, float value) {
+		glUniform1f(uniform(name), value);
+		return this;
+	}
+
+	/**
+	 * Sets a matrix uniform of the program. The program must be in use.
+	 *
+	 * @param name   the name of the uniform
+	 * @param matrix the 16 floats of the matrix, in column-major order
+	 * @return The original Program
+	 */
+	public Program set(String name, float[] matrix) {
+		glUniformMatrix4fv(uniform(name), false, matrix);
+		return this;
+	}
+
+	/**
+	 * Deletes the program. It can no longer be used after this method is executed.
+	 */
+	public void delete() {
+		glDeleteProgram(this.id);
+	}
+}
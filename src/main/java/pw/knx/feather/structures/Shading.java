@@ -0,0 +1,85 @@
+package pw.knx.feather.structures;
+
+/**
+ * Feather's built-in shading modes, and the shader programs that apply them.
+ * <p>
+ * COLORED ignores any texture, and draws the vertex color alone. TEXTURED multiplies the texture by
+ * the vertex color. ALPHA_TEXTURED takes nothing but alpha from the texture, as text requires.
+ * DISTANCE_FIELD reads the texture's alpha as a signed distance field, with the shape's edge at one half,
+ * and smooths the edge over a single screen pixel, so distance field text stays sharp at any scale.
+ * <p>
+ * Each mode's program is compiled the first time it's needed, for whichever backend Feather chose,
+ * and takes the same vertex layout as the core backend's Tessellators: a position at location 0,
+ * a color at location 1, and texture coordinates at location 2. Other vertex layouts (such as
+ * the Instance Batch's) can reuse a mode's fragment shader with a vertex shader of their own.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 15:02
+ */
+public enum Shading {
+	COLORED("FRAG_COLOR = tint;"),
+	TEXTURED("FRAG_COLOR = tint * TEXTURE(sampler, uv);"),
+	ALPHA_TEXTURED("FRAG_COLOR = vec4(tint.rgb, tint.a * TEXTURE(sampler, uv).a);"),
+	DISTANCE_FIELD("float distance = TEXTURE(sampler, uv).a;\n"
+			+ "	float width = 0.7 * fwidth(distance) + 0.0001;\n"
+			+ "	FRAG_COLOR = vec4(tint.rgb, tint.a * smoothstep(0.5 - width, 0.5 + width, distance));");
+
+	/**
+	 * The vertex shader shared by every mode's program, passing the vertex color and texture coordinates along
+	 */
+	private static final String VERTEX = "ATTRIBUTE vec4 position;\n"
+			+ "ATTRIBUTE vec4 color;\n"
+			+ "ATTRIBUTE vec2 texcoord;\n"
+			+ "VARYING vec4 tint;\n"
+			+ "VARYING vec2 uv;\n"
+			+ "void main() {\n"
+			+ "	tint = color;\n"
+			+ "	uv = texcoord;\n"
+			+ "	gl_Position = PROJECTION * position;\n"
+			+ "}\n";
+
+	/**
+	 * This mode's fragment shader
+	 */
+	private final String fragment;
+
+	/**
+	 * This mode's program, or null if it hasn't been needed yet
+	 */
+	private Program program;
+
+	Shading(String color) {
+		this.fragment = "uniform sampler2D sampler;\n"
+				+ "VARYING vec4 tint;\n"
+				+ "VARYING vec2 uv;\n"
+				+ "void main() {\n"
+				+ "	" + color + "\n"
+				+ "}\n";
+	}
+
+	/**
+	 * @return the fragment shader applying this mode, for use with Program.from(), expecting a
+	 * 'tint' color and 'uv' texture coordinates from its vertex shader
+	 */
+	public String fragment() {
+		return this.fragment;
+	}
+
+	/**
+	 * @return this mode's program, compiling it if need be
+	 */
+	public Program program() {
+		if (this.program == null)
+			this.program = Program.from(VERTEX, this.fragment, "position", "color", "texcoord").use().set("sampler", 0);
+		return this.program;
+	}
+
+	/**
+	 * Makes this mode's program the active program.
+	 *
+	 * @return this mode's program
+	 */
+	public Program use() {
+		return program().use();
+	}
+}
@@ -0,0 +1,115 @@
+package pw.knx.feather.structures;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A lock-free triple buffer, for handing whole objects (such as recorded frames) from one producer thread to one consumer thread.
+ * <p>
+ * Of the three slots, the producer owns one (the back), the consumer owns one (the front), and the third (the middle)
+ * sits between them. Publishing swaps the back with the middle, and acquiring swaps the middle with the front if
+ * anything new has been published since. Neither thread ever waits on the other: the producer can always start
+ * on its next object, and the consumer always has the latest complete object to work with, reusing it if nothing
+ * newer has arrived. Objects the consumer never got to are simply overwritten.
+ * <p>
+ * The single atomic swap behind each exchange also guarantees that everything the producer wrote into an
+ * object before publishing it is visible to the consumer after acquiring it.
+ *
+ * @param <T> the type of object being handed over
+ * @author KNOXDEV
+ * @since 10/16/2026 17:06
+ */
+public class TripleBuffer<T> {
+
+	/**
+	 * The bits of our middle state holding the middle slot's index
+	 */
+	private static final int INDEX = 3;
+
+	/**
+	 * The bit of our middle state set when the middle slot holds something the consumer hasn't acquired yet
+	 */
+	private static final int FRESH = 4;
+
+	/**
+	 * Our three slots
+	 */
+	private final Object[] slots = new Object[3];
+
+	/**
+	 * The middle slot's index, and whether it's fresh
+	 */
+	private final AtomicInteger middle = new AtomicInteger(1);
+
+	/**
+	 * The back slot's index, only ever touched by the producer
+	 */
+	private int back = 2;
+
+	/**
+	 * The front slot's index, only ever touched by the consumer
+	 */
+	private int front = 0;
+
+	/**
+	 * Constructs a Triple Buffer, filling each slot from the given factory.
+	 *
+	 * @param factory creates the object held in each slot
+	 */
+	public TripleBuffer(Supplier<T> factory) {
+		for (int i = 0; i < this.slots.length; i++)
+			this.slots[i] = factory.get();
+	}
+
+	/**
+	 * For the producer only.
+	 *
+	 * @return the back slot's object, to be written into and then published. It may still hold an old object's contents.
+	 */
+	@SuppressWarnings("unchecked")
+	public T back() {
+		return (T) this.slots[this.back];
+	}
+
+	/**
+	 * For the producer only. Hands the back slot's object over to the consumer, and takes a new back slot in return.
+	 *
+	 * @return the new back slot's object
+	 */
+	public T publish() {
+		this.back = this.middle.getAndSet(this.back | FRESH) & INDEX;
+		return back();
+	}
+
+	/**
+	 * For the consumer only. Takes the latest published object, if there's one we haven't acquired yet.
+	 *
+	 * @return whether a new object was acquired
+	 */
+	public boolean update() {
+		if ((this.middle.get() & FRESH) == 0)
+			return false;
+		this.front = this.middle.getAndSet(this.front) & INDEX;
+		return true;
+	}
+
+	/**
+	 * For the consumer only.
+	 *
+	 * @return the front slot's object, the latest one acquired
+	 */
+	@SuppressWarnings("unchecked")
+	public T front() {
+		return (T) this.slots[this.front];
+	}
+
+	/**
+	 * For the consumer only. Takes the latest published object if there's a new one, see update().
+	 *
+	 * @return the front slot's object, which is either the latest published, or the same as last time
+	 */
+	public T acquire() {
+		update();
+		return front();
+	}
+}
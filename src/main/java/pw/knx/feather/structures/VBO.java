@@ -2,6 +2,8 @@ package pw.knx.feather.structures;
 
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import pw.knx.feather.Feather;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -106,8 +108,15 @@ public class VBO {
 	 */
 	public VBO bind() {
 		FEATHER.bindBuffer(this.id);
+		if (FEATHER.backend() == Feather.Backend.CORE) { // no fixed-function pipeline, so draw with the built-in color program.
+			GL20.glVertexAttribPointer(0, this.dimensions, GL11.GL_FLOAT, false, 0, 0L);
+			GL20.glVertexAttrib4f(1, 1, 1, 1, 1);
+			FEATHER.enableAttributes(1);
+			Shading.COLORED.use();
+			return this;
+		}
 		GL11.glVertexPointer(this.dimensions, GL11.GL_FLOAT, 0, 0L);
-		GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+		FEATHER.clientState(GL11.GL_VERTEX_ARRAY, true);
 		return this;
 	}
 
@@ -118,7 +127,8 @@ public class VBO {
 	 */
 	public VBO unbind() {
 		FEATHER.bindBuffer(0);
-		GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+		if (FEATHER.backend() != Feather.Backend.CORE)
+			FEATHER.clientState(GL11.GL_VERTEX_ARRAY, false);
 		return this;
 	}
 
@@ -141,7 +151,16 @@ public class VBO {
 	 * @return The original VBO
 	 */
 	public VBO draw(int mode, ByteBuffer order) {
+		FEATHER.bindElementBuffer(0);               // client-side indices can't be used with an element buffer bound.
 		GL11.glDrawElements(mode, order);
 		return this;
 	}
+
+	/**
+	 * Deletes the buffer object behind this VBO. The VBO can no longer be drawn after this method is executed.
+	 * Must be called on the OpenGL thread, see Feather.deleteLater() for other threads.
+	 */
+	public void delete() {
+		FEATHER.deleteBuffer(this.id);
+	}
 }
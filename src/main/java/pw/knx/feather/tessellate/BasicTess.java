@@ -1,12 +1,19 @@
 package pw.knx.feather.tessellate;
 
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import pw.knx.feather.Feather;
+import pw.knx.feather.structures.Matrix;
+import pw.knx.feather.structures.Mesh;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static pw.knx.feather.Feather.FEATHER;
+
 /**
  * A standard implementation of the Tessellator interface.
  * <p>
@@ -50,17 +57,22 @@ public class BasicTess implements Tessellator {
 	/**
 	 * An integer storing our main color data for this vertex
 	 */
-	private int colors;
+	int colors;
 
 	/**
 	 * Floats storing our texture coordinate data for this vertex
 	 */
-	private float texU, texV;
+	float texU, texV;
 
 	/**
 	 * Booleans tracking whether this pass will require color or texture to be pushed as well
 	 */
-	private boolean color, texture;
+	boolean color, texture;
+
+	/**
+	 * The Matrix every vertex is transformed by as it's entered, or null for none
+	 */
+	Matrix transform;
 
 	/**
 	 * Constructs a Basic Tessellator. See Class Documentation for more information.
@@ -70,9 +82,18 @@ public class BasicTess implements Tessellator {
 	BasicTess(int capacity) {
 		/* Why times 6? Because 6 is how much space (in integers) that each vertex
 		 * takes up in the buffer, since each vertex stores color and texture as well. */
-		capacity *= 6;
-		this.raw = new int[capacity];
-		this.buffer = ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()); // 4 bytes in an integer!
+		this(new int[capacity * 6], ByteBuffer.allocateDirect(capacity * 6 * 4).order(ByteOrder.nativeOrder())); // 4 bytes in an integer!
+	}
+
+	/**
+	 * Constructs a Basic Tessellator around storage that has already been allocated.
+	 *
+	 * @param raw    The raw array of integers that will store vertex information, 6 integers per vertex
+	 * @param buffer A native-ordered direct buffer at least as large as the raw array, in bytes
+	 */
+	BasicTess(int[] raw, ByteBuffer buffer) {
+		this.raw = raw;
+		this.buffer = buffer;
 		this.fBuffer = this.buffer.asFloatBuffer();
 		this.iBuffer = this.buffer.asIntBuffer();
 	}
@@ -103,6 +124,16 @@ public class BasicTess implements Tessellator {
 		return this;
 	}
 
+	/**
+	 * @param matrix The Matrix to transform upcoming vertices by, or null to enter them untransformed
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator setTransform(Matrix matrix) {
+		this.transform = matrix;
+		return this;
+	}
+
 	/**
 	 * Enters a vertex of the shape to be rendered.
 	 * All data fed to the Tessellator revolves around the vertex data,
@@ -116,9 +147,16 @@ public class BasicTess implements Tessellator {
 	@Override
 	public Tessellator addVertex(float x, float y, float z) {
 		final int dex = this.index * 6;
-		this.raw[dex] = Float.floatToRawIntBits(x);
-		this.raw[dex + 1] = Float.floatToRawIntBits(y);
-		this.raw[dex + 2] = Float.floatToRawIntBits(z);
+		final Matrix transform = this.transform;
+		if (transform != null) {
+			this.raw[dex] = Float.floatToRawIntBits(transform.transformX(x, y, z));
+			this.raw[dex + 1] = Float.floatToRawIntBits(transform.transformY(x, y, z));
+			this.raw[dex + 2] = Float.floatToRawIntBits(transform.transformZ(x, y, z));
+		} else {
+			this.raw[dex] = Float.floatToRawIntBits(x);
+			this.raw[dex + 1] = Float.floatToRawIntBits(y);
+			this.raw[dex + 2] = Float.floatToRawIntBits(z);
+		}
 		this.raw[dex + 3] = this.colors;
 		this.raw[dex + 4] = Float.floatToRawIntBits(this.texU);
 		this.raw[dex + 5] = Float.floatToRawIntBits(this.texV);
@@ -126,6 +164,147 @@ public class BasicTess implements Tessellator {
 		return this;
 	}
 
+	/**
+	 * Enters an entire textured quad in one call, with a single capacity check.
+	 * See the Tessellator interface for more information.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator addQuad(float x1, float y1, float x2, float y2, float u, float v, float u1, float v1) {
+		ensure(4);
+		putQuad(x1, y1, x2, y2, u, v, u1, v1, this.colors);
+		this.texture = true;
+		this.texU = u1;
+		this.texV = v;
+		return this;
+	}
+
+	/**
+	 * Enters a series of packed vertices in one call, with a single capacity check.
+	 * They're packed exactly as we store them, so they're copied in one go.
+	 * See the Tessellator interface for more information.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator addVertices(int[] packed, int offset, int count) {
+		if (count <= 0)
+			return this;
+		ensure(count);
+		final int[] raw = this.raw;
+		final int dex = this.index * 6;
+		System.arraycopy(packed, offset, raw, dex, count * 6);
+		final Matrix transform = this.transform;
+		if (transform != null) {
+			for (int i = 0, src = offset, dst = dex; i < count; i++, src += 6, dst += 6) {
+				final float x = Float.intBitsToFloat(packed[src]), y = Float.intBitsToFloat(packed[src + 1]), z = Float.intBitsToFloat(packed[src + 2]);
+				raw[dst] = Float.floatToRawIntBits(transform.transformX(x, y, z));
+				raw[dst + 1] = Float.floatToRawIntBits(transform.transformY(x, y, z));
+				raw[dst + 2] = Float.floatToRawIntBits(transform.transformZ(x, y, z));
+			}
+		}
+		this.index += count;
+		final int last = offset + (count - 1) * 6;
+		this.colors = packed[last + 3];
+		this.texU = Float.intBitsToFloat(packed[last + 4]);
+		this.texV = Float.intBitsToFloat(packed[last + 5]);
+		this.color = true;
+		this.texture = true;
+		return this;
+	}
+
+	/**
+	 * Enters every quad remaining in the buffers in one call, with a single capacity check.
+	 * See the Tessellator interface for more information.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator addQuads(FloatBuffer quads, IntBuffer colors) {
+		final int count = Math.min(quads.remaining() / 8, colors.remaining());
+		if (count <= 0)
+			return this;
+		ensure(count * 4);
+		final int first = quads.position(), firstColor = colors.position();
+		for (int i = 0, dex = first; i < count; i++, dex += 8)
+			putQuad(quads.get(dex), quads.get(dex + 1), quads.get(dex + 2), quads.get(dex + 3),
+					quads.get(dex + 4), quads.get(dex + 5), quads.get(dex + 6), quads.get(dex + 7), colors.get(firstColor + i));
+		final int last = first + (count - 1) * 8;
+		quads.position(first + count * 8);
+		colors.position(firstColor + count);
+		this.colors = colors.get(firstColor + count - 1);
+		this.texU = quads.get(last + 6);
+		this.texV = quads.get(last + 5);
+		this.color = true;
+		this.texture = true;
+		return this;
+	}
+
+	/**
+	 * Writes an entire quad into the raw data array, transformed by our Matrix. Our capacity must already have been checked.
+	 */
+	private void putQuad(float x1, float y1, float x2, float y2, float u, float v, float u1, float v1, int color) {
+		final int[] raw = this.raw;
+		int dex = this.index * 6;
+		this.index += 4;
+		final Matrix transform = this.transform;
+		if (transform != null && !transform.isTranslation()) { // anything but a translation has to transform each corner in full.
+			dex = put(raw, dex, transform, x1, y1, color, u, v);
+			dex = put(raw, dex, transform, x1, y2, color, u, v1);
+			dex = put(raw, dex, transform, x2, y2, color, u1, v1);
+			put(raw, dex, transform, x2, y1, color, u1, v);
+			return;
+		}
+		float z = 0;
+		if (transform != null) {
+			x1 += transform.translationX();
+			x2 += transform.translationX();
+			y1 += transform.translationY();
+			y2 += transform.translationY();
+			z = transform.translationZ();
+		}
+		dex = put(raw, dex, x1, y1, z, color, u, v);
+		dex = put(raw, dex, x1, y2, z, color, u, v1);
+		dex = put(raw, dex, x2, y2, z, color, u1, v1);
+		put(raw, dex, x2, y1, z, color, u1, v);
+	}
+
+	/**
+	 * Writes a single vertex on the z = 0 plane, transformed by the given Matrix, into the raw data array.
+	 *
+	 * @return the index of the next vertex in the raw data array
+	 */
+	private static int put(int[] raw, int dex, Matrix transform, float x, float y, int color, float u, float v) {
+		return put(raw, dex, transform.transformX(x, y, 0), transform.transformY(x, y, 0), transform.transformZ(x, y, 0), color, u, v);
+	}
+
+	/**
+	 * Writes a single vertex into the raw data array.
+	 *
+	 * @return the index of the next vertex in the raw data array
+	 */
+	private static int put(int[] raw, int dex, float x, float y, float z, int color, float u, float v) {
+		raw[dex] = Float.floatToRawIntBits(x);
+		raw[dex + 1] = Float.floatToRawIntBits(y);
+		raw[dex + 2] = Float.floatToRawIntBits(z);
+		raw[dex + 3] = color;
+		raw[dex + 4] = Float.floatToRawIntBits(u);
+		raw[dex + 5] = Float.floatToRawIntBits(v);
+		return dex + 6;
+	}
+
+	/**
+	 * Makes sure there's room for the given number of vertices past our current index, before
+	 * any of them are written. This Tessellator can't grow, so it can only complain.
+	 *
+	 * @param vertices the number of vertices about to be written
+	 */
+	void ensure(int vertices) {
+		if ((this.index + vertices) * 6 > this.raw.length)
+			throw new ArrayIndexOutOfBoundsException("Tessellator capacity of " + this.raw.length / 6 + " vertices exceeded");
+	}
+
 	/**
 	 * The first stage of rendering.
 	 * Binds (finalizes) the current rendering data stored in the buffer for drawing.
@@ -135,10 +314,13 @@ public class BasicTess implements Tessellator {
 	 */
 	@Override
 	public Tessellator bind() {
-		final int dex = this.index * 6;
-		this.iBuffer.put(this.raw, 0, dex);
-		this.buffer.position(0);
-		this.buffer.limit(dex * 4);
+		final int dex = stage();
+		if (FEATHER.backend() == Feather.Backend.CORE) { // the core backend can't draw from client memory.
+			ClientBuffer.upload(memAddress(this.buffer), dex * 4L);
+			VertexFormat.DEFAULT.bind(0L, this.color, this.texture);
+			FEATHER.bindBuffer(0);
+			return this;
+		}
 		if (this.color) {                           // if we've entered color data, push color data down the pipeline.
 			this.buffer.position(12);
 			GL11.glColorPointer(4, GL11.GL_UNSIGNED_BYTE, 24, this.buffer);
@@ -152,6 +334,39 @@ public class BasicTess implements Tessellator {
 		return this;
 	}
 
+	/**
+	 * Copies every vertex entered from the raw data array into the direct buffer, ready to be pointed at.
+	 * This is the copy the Direct Tessellator exists to skip.
+	 *
+	 * @return the number of integers copied
+	 */
+	int stage() {
+		final int dex = this.index * 6;
+		this.iBuffer.put(this.raw, 0, dex);
+		this.buffer.position(0);
+		this.buffer.limit(dex * 4);
+		return dex;
+	}
+
+	/**
+	 * Uploads our current contents into a new buffer object, and returns a Mesh that draws them.
+	 * Our contents are left alone.
+	 *
+	 * @return the freshly compiled Mesh
+	 */
+	@Override
+	public Mesh compile() {
+		final int dex = this.index * 6;
+		this.iBuffer.clear();
+		this.iBuffer.put(this.raw, 0, dex).flip();
+		final int id = GL15.glGenBuffers();
+		FEATHER.bindBuffer(id);
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, this.iBuffer, GL15.GL_STATIC_DRAW);
+		FEATHER.bindBuffer(0);
+		this.iBuffer.clear();
+		return new Mesh(id, VertexFormat.DEFAULT, this.index, this.color, this.texture);
+	}
+
 	/**
 	 * The second stage of rendering.
 	 * Performs a rendering pass with the data bound to the buffer.
@@ -159,13 +374,18 @@ public class BasicTess implements Tessellator {
 	 * Otherwise, you can render the data for as many passes as you please.
 	 * <p>
 	 * This particular implementation uses VertexArrayObjects.
+	 * <p>
+	 * Quads are drawn as triangles through the shared QuadIndices buffer.
 	 *
 	 * @param mode The OpenGL mode to render the data with
 	 * @return The original Tessellator Object
 	 */
 	@Override
 	public Tessellator pass(int mode) {
-		GL11.glDrawArrays(mode, 0, this.index);
+		if (mode == GL11.GL_QUADS)
+			QuadIndices.draw(this.index);
+		else
+			GL11.glDrawArrays(mode, 0, this.index);
 		return this;
 	}
 
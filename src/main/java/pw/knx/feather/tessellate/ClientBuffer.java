@@ -0,0 +1,41 @@
+package pw.knx.feather.tessellate;
+
+import static org.lwjgl.opengl.GL15.*;
+import static pw.knx.feather.Feather.FEATHER;
+
+/**
+ * A single, shared buffer object standing in for client arrays on Feather's core backend.
+ * <p>
+ * Core profile contexts can't draw from client memory, so the Tessellators that keep their vertices
+ * there (Basic, Expanding, Flushing and Direct) upload them through this buffer object when binding.
+ * Its old storage is orphaned on every upload, so an upload never waits on the draw before it.
+ * Tessellators that already keep their vertices in buffer objects never touch it.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 15:10
+ */
+final class ClientBuffer {
+
+	/**
+	 * The OpenGL ID of our buffer object, or 0 if it hasn't been created yet
+	 */
+	private static int id;
+
+	private ClientBuffer() {
+	}
+
+	/**
+	 * Uploads vertices from client memory into our buffer object, and leaves it bound,
+	 * so the caller can set up its pointers as offsets starting at 0.
+	 *
+	 * @param address the native address of the first vertex
+	 * @param bytes   the number of bytes to upload
+	 */
+	static void upload(long address, long bytes) {
+		if (id == 0)
+			id = glGenBuffers();
+		FEATHER.bindBuffer(id);
+		glBufferData(GL_ARRAY_BUFFER, bytes, GL_STREAM_DRAW);
+		nglBufferSubData(GL_ARRAY_BUFFER, 0L, bytes, address);
+	}
+}
@@ -0,0 +1,454 @@
+package pw.knx.feather.tessellate;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import pw.knx.feather.Feather;
+import pw.knx.feather.structures.Matrix;
+import pw.knx.feather.structures.Mesh;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static pw.knx.feather.Feather.FEATHER;
+
+/**
+ * An off-heap implementation of the Tessellator interface.
+ * <p>
+ * Where the Basic Tessellator stages its vertices in an int array and copies them
+ * into a direct buffer upon binding, this Tessellator writes every vertex straight
+ * into native memory by address. Each vertex is therefore only ever written once,
+ * and binding costs nothing more than pointing OpenGL at the memory we've filled.
+ * <p>
+ * Vertices are laid out according to the VertexFormat this Tessellator was created with,
+ * so only the attributes the format asks for are ever written or pushed down the pipeline.
+ * <p>
+ * Like the Basic Tessellator, its size is final from the moment it's instantiated.
+ * Unlike the Basic Tessellator, writing past its capacity can't be left to the
+ * JVM to catch, so every vertex is checked against the capacity before it is written.
+ * <p>
+ * The voids in this interface return the Tessellator object for easy method chaining.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 09:12
+ */
+public class DirectTess implements Tessellator {
+
+	/**
+	 * The layout of every vertex we write
+	 */
+	final VertexFormat format;
+
+	/**
+	 * The size, in bytes, of a single vertex in our format
+	 */
+	final int stride;
+
+	/**
+	 * Tracks the current index in the total data buffer that we're on
+	 */
+	int index;
+
+	/**
+	 * The total capacity, in whole vertices, of this Tessellator
+	 */
+	int capacity;
+
+	/**
+	 * The index at which overflow() must be consulted before any more vertices can be written
+	 */
+	int limit;
+
+	/**
+	 * The direct byte buffer that owns the native memory our vertices are written to
+	 */
+	ByteBuffer buffer;
+
+	/**
+	 * The native address of the first vertex in our buffer
+	 */
+	long address;
+
+	/**
+	 * An integer storing our main color data for this vertex
+	 */
+	int colors;
+
+	/**
+	 * Floats storing our texture coordinate data for this vertex
+	 */
+	float texU, texV;
+
+	/**
+	 * Floats storing our normal data for this vertex
+	 */
+	private float normalX, normalY, normalZ;
+
+	/**
+	 * Floats storing our custom attribute data for this vertex, four floats per attribute
+	 */
+	private final float[] attributes;
+
+	/**
+	 * Booleans tracking whether this pass will require color or texture to be pushed as well
+	 */
+	boolean color, texture;
+
+	/**
+	 * The Matrix every vertex is transformed by as it's written, or null for none
+	 */
+	Matrix transform;
+
+	/**
+	 * Constructs a Direct Tessellator. See Class Documentation for more information.
+	 *
+	 * @param capacity The total capacity, in whole vertices, that this Tessellator will be able to render at once.
+	 * @param format   The layout of every vertex this Tessellator will write
+	 */
+	DirectTess(int capacity, VertexFormat format) {
+		this(ByteBuffer.allocateDirect(capacity * format.stride).order(ByteOrder.nativeOrder()), capacity, format);
+	}
+
+	/**
+	 * Constructs a Direct Tessellator around memory that has already been allocated.
+	 *
+	 * @param buffer   The direct buffer our vertices will be written to
+	 * @param capacity The total capacity, in whole vertices, that the buffer is able to hold
+	 * @param format   The layout of every vertex this Tessellator will write
+	 */
+	DirectTess(ByteBuffer buffer, int capacity, VertexFormat format) {
+		this.format = format;
+		this.stride = format.stride;
+		this.attributes = new float[format.generics.length * 4];
+		this.buffer = buffer;
+		this.capacity = capacity;
+		this.limit = capacity;
+		this.address = buffer == null ? NULL : memAddress(buffer);
+	}
+
+	/**
+	 * @param color The color to associate the upcoming vertex data with
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator setColor(int color) {
+		this.color = true;
+		this.colors = color;
+		return this;
+	}
+
+	/**
+	 * Set the texture coordinates to associate the upcoming vertex data with.
+	 *
+	 * @param u The x starting coordinate
+	 * @param v The y starting coordinate
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator setTexture(float u, float v) {
+		this.texture = true;
+		this.texU = u;
+		this.texV = v;
+		return this;
+	}
+
+	/**
+	 * Set the normal to associate the upcoming vertex data with.
+	 * Ignored if our format does not include normals.
+	 *
+	 * @param x The x component of the normal
+	 * @param y The y component of the normal
+	 * @param z The z component of the normal
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator setNormal(float x, float y, float z) {
+		this.normalX = x;
+		this.normalY = y;
+		this.normalZ = z;
+		return this;
+	}
+
+	/**
+	 * Set a custom attribute to associate the upcoming vertex data with.
+	 * Components beyond the size of the attribute are ignored.
+	 *
+	 * @param attribute The index of the custom attribute, in the order it was added to our format
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator setAttribute(int attribute, float x, float y, float z, float w) {
+		final int dex = attribute * 4;
+		this.attributes[dex] = x;
+		this.attributes[dex + 1] = y;
+		this.attributes[dex + 2] = z;
+		this.attributes[dex + 3] = w;
+		return this;
+	}
+
+	/**
+	 * @param matrix The Matrix to transform upcoming vertices by, or null to enter them untransformed
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator setTransform(Matrix matrix) {
+		this.transform = matrix;
+		return this;
+	}
+
+	/**
+	 * Enters a vertex of the shape to be rendered.
+	 * All data fed to the Tessellator revolves around the vertex data,
+	 * as it is the only information absolutely necessary to render a shape.
+	 *
+	 * @param x The x coordinate of this vertex
+	 * @param y The y coordinate of this vertex
+	 * @param z The z coordinate of this vertex
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator addVertex(float x, float y, float z) {
+		if (this.index >= this.limit)
+			overflow(1);
+		put(x, y, z);
+		return this;
+	}
+
+	/**
+	 * Enters an entire textured quad in one call, with a single capacity check.
+	 * See the Tessellator interface for more information.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator addQuad(float x1, float y1, float x2, float y2, float u, float v, float u1, float v1) {
+		if (this.index + 4 > this.limit)
+			overflow(4);
+		this.texture = true;
+		putQuad(x1, y1, x2, y2, u, v, u1, v1);
+		return this;
+	}
+
+	/**
+	 * Enters a series of packed vertices in one call, with a single capacity check.
+	 * See the Tessellator interface for more information.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator addVertices(int[] packed, int offset, int count) {
+		if (count <= 0)
+			return this;
+		if (this.index + count > this.limit)
+			overflow(count);
+		this.color = true;
+		this.texture = true;
+		for (int i = 0, dex = offset; i < count; i++, dex += 6) {
+			this.colors = packed[dex + 3];
+			this.texU = Float.intBitsToFloat(packed[dex + 4]);
+			this.texV = Float.intBitsToFloat(packed[dex + 5]);
+			put(Float.intBitsToFloat(packed[dex]), Float.intBitsToFloat(packed[dex + 1]), Float.intBitsToFloat(packed[dex + 2]));
+		}
+		return this;
+	}
+
+	/**
+	 * Enters every quad remaining in the buffers in one call, with a single capacity check.
+	 * See the Tessellator interface for more information.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator addQuads(FloatBuffer quads, IntBuffer colors) {
+		final int count = Math.min(quads.remaining() / 8, colors.remaining());
+		if (count <= 0)
+			return this;
+		if (this.index + count * 4 > this.limit)
+			overflow(count * 4);
+		this.color = true;
+		this.texture = true;
+		for (int i = 0; i < count; i++) {
+			this.colors = colors.get();
+			putQuad(quads.get(), quads.get(), quads.get(), quads.get(), quads.get(), quads.get(), quads.get(), quads.get());
+		}
+		return this;
+	}
+
+	/**
+	 * Writes an entire quad, leaving our texture coordinates at its last corner. Our capacity must already have been checked.
+	 */
+	private void putQuad(float x1, float y1, float x2, float y2, float u, float v, float u1, float v1) {
+		this.texU = u;
+		this.texV = v;
+		put(x1, y1, 0);
+		this.texV = v1;
+		put(x1, y2, 0);
+		this.texU = u1;
+		put(x2, y2, 0);
+		this.texV = v;
+		put(x2, y1, 0);
+	}
+
+	/**
+	 * Writes a single vertex, transformed by our Matrix, along with whatever attributes we're currently
+	 * associating vertices with, into native memory. Our capacity must already have been checked.
+	 *
+	 * @param x The x coordinate of this vertex
+	 * @param y The y coordinate of this vertex
+	 * @param z The z coordinate of this vertex
+	 */
+	private void put(float x, float y, float z) {
+		final Matrix transform = this.transform;
+		if (transform != null) {
+			final float tx = transform.transformX(x, y, z), ty = transform.transformY(x, y, z);
+			z = transform.transformZ(x, y, z);
+			x = tx;
+			y = ty;
+		}
+		final long dex = this.address + (long) this.index++ * this.stride;
+		if (this.format.basic)
+			putBasic(dex, x, y, z);
+		else
+			putFormatted(dex, x, y, z);
+	}
+
+	/**
+	 * Writes a single vertex laid out exactly as the Basic Tessellator lays it out, without consulting each attribute.
+	 */
+	private void putBasic(long dex, float x, float y, float z) {
+		final int color = this.colors;
+		final float u = this.texU, v = this.texV;
+		memPutFloat(dex, x);
+		memPutFloat(dex + 4, y);
+		memPutFloat(dex + 8, z);
+		memPutInt(dex + 12, color);
+		memPutFloat(dex + 16, u);
+		memPutFloat(dex + 20, v);
+	}
+
+	/**
+	 * Writes a single vertex attribute by attribute, as laid out by our format.
+	 */
+	private void putFormatted(long dex, float x, float y, float z) {
+		final VertexFormat format = this.format;
+		format.position.put(dex, x, y, z, 0);
+		if (format.color != null)
+			memPutInt(dex + format.color.offset, this.colors);
+		if (format.texture != null)
+			format.texture.put(dex, this.texU, this.texV, 0, 0);
+		if (format.normal != null)
+			format.normal.put(dex, this.normalX, this.normalY, this.normalZ, 0);
+		for (int i = 0; i < format.generics.length; i++) {
+			final int a = i * 4;
+			format.generics[i].put(dex, this.attributes[a], this.attributes[a + 1], this.attributes[a + 2], this.attributes[a + 3]);
+		}
+	}
+
+	/**
+	 * Called whenever vertices are about to be written past our limit. Implementations may
+	 * make room for more vertices here, otherwise the vertices cannot be written at all.
+	 *
+	 * @param vertices the number of vertices about to be written
+	 */
+	void overflow(int vertices) {
+		throw new IndexOutOfBoundsException("Tessellator capacity of " + this.capacity + " vertices exceeded");
+	}
+
+	/**
+	 * The first stage of rendering.
+	 * Binds (finalizes) the current rendering data stored in the buffer for drawing.
+	 * This must be executed before you perform a rendering pass.
+	 * <p>
+	 * Since our vertices already live in native memory, there is nothing to copy.
+	 * On the core backend, which can't draw from client memory, they're uploaded through the shared ClientBuffer.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator bind() {
+		if (FEATHER.backend() == Feather.Backend.CORE) {
+			ClientBuffer.upload(this.address, (long) this.index * this.stride);
+			pointers(0L);
+			FEATHER.bindBuffer(0);
+		} else {
+			pointers(this.address);
+		}
+		return this;
+	}
+
+	/**
+	 * Points the OpenGL client arrays at the vertex data found at the given pointer.
+	 * With no buffer object bound, this is a native address. With a buffer object bound,
+	 * this is an offset into that buffer object.
+	 *
+	 * @param pointer The address or buffer offset of the first vertex
+	 */
+	void pointers(long pointer) {
+		this.format.bind(pointer, this.color, this.texture);
+	}
+
+	/**
+	 * Uploads our current contents into a new buffer object, and returns a Mesh that draws them.
+	 * Our contents are left alone.
+	 *
+	 * @return the freshly compiled Mesh
+	 */
+	@Override
+	public Mesh compile() {
+		final int id = GL15.glGenBuffers();
+		FEATHER.bindBuffer(id);
+		GL15.nglBufferData(GL15.GL_ARRAY_BUFFER, (long) this.index * this.stride, this.address, GL15.GL_STATIC_DRAW);
+		FEATHER.bindBuffer(0);
+		return new Mesh(id, this.format, this.index, this.color, this.texture);
+	}
+
+	/**
+	 * The second stage of rendering.
+	 * Performs a rendering pass with the data bound to the buffer.
+	 * If the data is not bound first, this method will fail.
+	 * Otherwise, you can render the data for as many passes as you please.
+	 * <p>
+	 * Quads are drawn as triangles through the shared QuadIndices buffer.
+	 *
+	 * @param mode The OpenGL mode to render the data with
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator pass(int mode) {
+		if (mode == GL11.GL_QUADS)
+			QuadIndices.draw(this.index);
+		else
+			GL11.glDrawArrays(mode, 0, this.index);
+		return this;
+	}
+
+	/**
+	 * Resets the buffer without clearing the data.
+	 * Since this Tessellator never copies its data anywhere, there's no
+	 * staging state to rewind, so this is effectively a no-op.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator unbind() {
+		return this;
+	}
+
+	/**
+	 * The third and final stage of rendering.
+	 * Clears up the buffer and resets the Tessellator so it can
+	 * be used again with new data. Passes can no longer be made
+	 * after this method is executed.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator reset() {
+		this.index = 0;
+		this.color = false;
+		this.texture = false;
+		return this;
+	}
+}
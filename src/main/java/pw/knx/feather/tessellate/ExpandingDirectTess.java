@@ -0,0 +1,51 @@
+package pw.knx.feather.tessellate;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * An automatically resizing Direct Tessellator.
+ * <p>
+ * Vertices are written into native memory in any VertexFormat, exactly like the Direct Tessellator, but rather
+ * than refusing vertices past its capacity, this Tessellator doubles its capacity in place with memRealloc().
+ * Its native memory must be freed with delete() once you're done with it.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 11:24
+ */
+class ExpandingDirectTess extends DirectTess {
+
+	/**
+	 * Constructs an Expanding Direct Tessellator. See Class Documentation for more information.
+	 *
+	 * @param capacity The total initial capacity, in whole vertices
+	 * @param format   The layout of every vertex this Tessellator will write
+	 */
+	ExpandingDirectTess(int capacity, VertexFormat format) {
+		super(memAlloc(Math.max(capacity, 1) * format.stride), Math.max(capacity, 1), format); // memAlloc(0) would give us NULL.
+	}
+
+	/**
+	 * Doubles our capacity, or more if these vertices need it, preserving every vertex written so far.
+	 *
+	 * @param vertices the number of vertices about to be written
+	 */
+	@Override
+	void overflow(int vertices) {
+		final int capacity = Math.max(this.capacity * 2, this.index + vertices);
+		this.buffer = memRealloc(this.buffer, capacity * this.stride);
+		this.address = memAddress(this.buffer);
+		this.capacity = this.limit = capacity;
+	}
+
+	/**
+	 * Frees our native memory. This Tessellator can no longer be used afterwards.
+	 */
+	@Override
+	public void delete() {
+		if (this.buffer == null)
+			return;
+		memFree(this.buffer);
+		this.buffer = null;
+		this.address = NULL;
+	}
+}
@@ -2,6 +2,9 @@ package pw.knx.feather.tessellate;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.lwjgl.system.MemoryUtil.*;
 
 /**
  * An automatically resizing implementation of the Tessellator interface.
@@ -9,6 +12,15 @@ import java.nio.ByteOrder;
  * This class directly extends the Basic Tessellator, and leaves most of its
  * behavior intact. The only difference is that this Tessellator grows in capacity
  * automatically should you continue to add vertices past its initial size.
+ * <p>
+ * By default, its direct buffer is left to the garbage collector, just like the Basic Tessellator's.
+ * Optionally, it can live in native memory we allocate (and free) ourselves instead, and be resized in place with
+ * memRealloc() rather than being abandoned to the garbage collector each time it grows. Such an Expanding
+ * Tessellator must be deleted once you're done with it, or its native memory will leak.
+ * <p>
+ * Native Expanding Tessellators may also decay: should one go a number of resets (typically one per draw) in a row
+ * without ever needing more than a fraction of its capacity, it shrinks by its factor, down to no smaller
+ * than its initial size. One unusually huge frame therefore doesn't pin its memory forever.
  *
  * @author KNOXDEV
  * @since 8/9/2016 03:00
@@ -26,16 +38,68 @@ public class ExpandingTess extends BasicTess {
 	private final float factor;
 
 	/**
-	 * Constructs an Expanding Tessellator. See Class Documentation for more information.
+	 * The number of consecutive low-usage resets after which this Tessellator shrinks, or 0 to never shrink.
+	 */
+	private final int decay;
+
+	/**
+	 * Whether our direct buffer lives in native memory we manage ourselves, rather than being left to the garbage collector
+	 */
+	private final boolean managed;
+
+	/**
+	 * The initial size of our raw data array, which we'll never shrink below
+	 */
+	private final int initial;
+
+	/**
+	 * The number of resets since we last grew or considered shrinking
+	 */
+	private int resets;
+
+	/**
+	 * The most vertices we've held at once since we last grew or considered shrinking
+	 */
+	private int usage;
+
+	/**
+	 * The largest our direct buffer has ever been, in bytes
+	 */
+	private long peak;
+
+	/**
+	 * Constructs an Expanding Tessellator whose direct buffer is left to the garbage collector, and never shrinks.
+	 * See Class Documentation for more information.
 	 *
 	 * @param initial The total initial capacity, in whole vertices.
 	 * @param ratio   The target ratio, between 0 and 1.0, that this Tessellator must hit before it grows.
 	 * @param factor  The factor of which this Tessellator will grow when it hits the ratio.
 	 */
 	ExpandingTess(int initial, float ratio, float factor) {
-		super(initial);
+		this(initial, ratio, factor, 0, false);
+	}
+
+	/**
+	 * Constructs an Expanding Tessellator whose direct buffer lives in native memory, and must be freed with delete().
+	 * See Class Documentation for more information.
+	 *
+	 * @param initial The total initial capacity, in whole vertices.
+	 * @param ratio   The target ratio, between 0 and 1.0, that this Tessellator must hit before it grows.
+	 * @param factor  The factor of which this Tessellator will grow when it hits the ratio.
+	 * @param decay   The number of consecutive low-usage resets after which this Tessellator shrinks, or 0 to never shrink.
+	 */
+	ExpandingTess(int initial, float ratio, float factor, int decay) {
+		this(initial, ratio, factor, decay, true);
+	}
+
+	private ExpandingTess(int initial, float ratio, float factor, int decay, boolean managed) {
+		super(new int[Math.max(initial, 1) * 6], allocate(Math.max(initial, 1) * 6 * 4, managed)); // memAlloc(0) would give us NULL.
 		this.ratio = ratio;
 		this.factor = factor;
+		this.decay = decay;
+		this.managed = managed;
+		this.initial = this.raw.length;
+		this.peak = this.buffer.capacity();
 	}
 
 	/**
@@ -53,16 +117,100 @@ public class ExpandingTess extends BasicTess {
 	 */
 	@Override
 	public Tessellator addVertex(float x, float y, float z) {
-		int capacity = raw.length;
-		if (index * 6 >= capacity * ratio) {                         // if we've hit our capacity limit
-			capacity *= factor;                                 // raise our limit by the amount specified
-			final int[] newBuffer = new int[capacity];          // allocate the new data
-			System.arraycopy(raw, 0, newBuffer, 0, raw.length); // transfer the data from the old array to the new array
-			raw = newBuffer;                                    // replace the array
-			buffer = ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder());       // allocate a new corresponding ByteBuffer
-			iBuffer = buffer.asIntBuffer();
-			fBuffer = buffer.asFloatBuffer();
-		}
+		ensure(1);
 		return super.addVertex(x, y, z);
 	}
+
+	/**
+	 * Makes sure there's room for the given number of vertices past our current index.
+	 * If the Tessellator's capacity ratio would be reached, it will increase in size
+	 * (by at least its factor) before any of them are written.
+	 *
+	 * @param vertices the number of vertices about to be written
+	 */
+	@Override
+	void ensure(int vertices) {
+		final int needed = (index + vertices) * 6;
+		if (needed - 6 >= raw.length * ratio)                   // if we've hit our capacity limit
+			resize(Math.max((int) (raw.length * factor),           // raise our limit by the amount specified,
+					(int) Math.ceil(needed / ratio)));              // or as far as these vertices need
+	}
+
+	/**
+	 * The third and final stage of rendering.
+	 * Clears up the buffer and resets the Tessellator so it can
+	 * be used again with new data. Passes can no longer be made
+	 * after this method is executed.
+	 * <p>
+	 * Should we have gone too many resets without needing much of our capacity, we shrink here.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator reset() {
+		usage = Math.max(usage, index);
+		super.reset();
+		if (decay > 0 && ++resets >= decay) {
+			final int shrunk = Math.max(initial, (int) (raw.length / factor));
+			if (shrunk < raw.length && usage * 6 < shrunk * ratio)  // only shrink if our usage would still fit comfortably
+				resize(shrunk);
+			resets = 0;
+			usage = 0;
+		}
+		return this;
+	}
+
+	/**
+	 * Resizes both our raw data array and our direct buffer, preserving the data held within.
+	 * A native direct buffer is reallocated in place where possible.
+	 *
+	 * @param capacity the new size of our raw data array, in integers
+	 */
+	private void resize(int capacity) {
+		raw = Arrays.copyOf(raw, capacity);
+		buffer = managed ? memRealloc(buffer, capacity * 4) : allocate(capacity * 4, false); // 4 bytes in an integer!
+		buffer.clear();                                         // memRealloc() keeps whatever position bind() left behind, which our views would start at.
+		iBuffer = buffer.asIntBuffer();
+		fBuffer = buffer.asFloatBuffer();
+		peak = Math.max(peak, buffer.capacity());
+		resets = 0;
+		usage = 0;
+	}
+
+	/**
+	 * @param bytes   the size of the direct buffer
+	 * @param managed whether to allocate it in native memory we free ourselves, rather than leave it to the garbage collector
+	 * @return a fresh native-ordered direct buffer
+	 */
+	private static ByteBuffer allocate(int bytes, boolean managed) {
+		return managed ? memAlloc(bytes) : ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Frees our native direct buffer. This Tessellator can no longer be used afterwards.
+	 * Does nothing if our direct buffer is left to the garbage collector.
+	 */
+	@Override
+	public void delete() {
+		if (!managed || buffer == null)
+			return;
+		memFree(buffer);
+		buffer = null;
+		iBuffer = null;
+		fBuffer = null;
+	}
+
+	/**
+	 * @return the size of our direct buffer, in bytes
+	 */
+	public long bytes() {
+		return buffer == null ? 0 : buffer.capacity();
+	}
+
+	/**
+	 * @return the largest our direct buffer has ever been, in bytes
+	 */
+	public long peakBytes() {
+		return peak;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+package pw.knx.feather.tessellate;
+
+import org.lwjgl.opengl.GL11;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A constant-memory implementation of the Tessellator interface.
+ * <p>
+ * This class directly extends the Basic Tessellator, and leaves most of its behavior intact.
+ * The difference is what happens when it fills up: rather than throwing an error (like the Basic Tessellator)
+ * or growing (like the Expanding Tessellator), this Tessellator draws everything it holds with its
+ * current mode, and carries on writing from the start of its buffer. A small, fixed, cache-friendly
+ * buffer can therefore stream an arbitrarily large scene.
+ * <p>
+ * Flushes always happen on whole-primitive boundaries, so a primitive is never torn in half. Any vertices
+ * of an incomplete primitive are carried over to the start of the buffer, along with whatever vertices
+ * the next primitive shares with those already drawn (for strips and fans). GL_TRIANGLE_STRIP, GL_LINE_STRIP,
+ * and GL_TRIANGLE_FAN can all be split this way. GL_LINE_LOOP, GL_QUAD_STRIP and GL_POLYGON cannot, so
+ * overfilling the Tessellator in one of those modes throws an error just like the Basic Tessellator.
+ * <p>
+ * The mode used when flushing is the one this Tessellator was created with, or the last one it
+ * was passed with, whichever came last.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 13:09
+ */
+public class FlushingTess extends BasicTess {
+
+	/**
+	 * A capacity, in whole vertices, that fits within 64 KB and divides evenly into points, lines, triangles and quads
+	 */
+	static final int DEFAULT_CAPACITY = 65536 / 24 / 12 * 12;
+
+	/**
+	 * The OpenGL mode we flush our vertices with
+	 */
+	private int mode;
+
+	/**
+	 * Constructs a Flushing Tessellator. See Class Documentation for more information.
+	 *
+	 * @param capacity The total capacity, in whole vertices, that this Tessellator will buffer before flushing.
+	 * @param mode     The OpenGL mode to flush our vertices with
+	 */
+	FlushingTess(int capacity, int mode) {
+		super(capacity);
+		this.mode = mode;
+	}
+
+	/**
+	 * @param mode The OpenGL mode to flush our vertices with from now on
+	 * @return The original Tessellator Object
+	 */
+	public Tessellator setMode(int mode) {
+		this.mode = mode;
+		return this;
+	}
+
+	/**
+	 * Enters a vertex of the shape to be rendered.
+	 * All data fed to the Tessellator revolves around the vertex data,
+	 * as it is the only information absolutely necessary to render a shape.
+	 * <p>
+	 * If the Tessellator is full, everything it holds is drawn before
+	 * adding the vertex to the buffer.
+	 *
+	 * @param x The x coordinate of this vertex
+	 * @param y The y coordinate of this vertex
+	 * @param z The z coordinate of this vertex
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator addVertex(float x, float y, float z) {
+		ensure(1);
+		return super.addVertex(x, y, z);
+	}
+
+	/**
+	 * Enters a series of packed vertices, in pieces small enough to fit whatever a flush leaves behind.
+	 * See the Tessellator interface for more information.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator addVertices(int[] packed, int offset, int count) {
+		final int most = room();
+		for (; count > most; offset += most * 6, count -= most)
+			super.addVertices(packed, offset, most);
+		return super.addVertices(packed, offset, count);
+	}
+
+	/**
+	 * Enters every quad remaining in the buffers, in pieces small enough to fit whatever a flush leaves behind.
+	 * See the Tessellator interface for more information.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator addQuads(FloatBuffer quads, IntBuffer colors) {
+		final int most = Math.max(1, room() / 4);
+		final int limit = quads.limit();
+		while (quads.remaining() / 8 > most && colors.hasRemaining()) {
+			quads.limit(quads.position() + most * 8);
+			super.addQuads(quads, colors);
+			quads.limit(limit);
+		}
+		return super.addQuads(quads, colors);
+	}
+
+	/**
+	 * @return the number of vertices that always fit at once, as a flush carries at most three vertices over
+	 */
+	private int room() {
+		return Math.max(1, raw.length / 6 - 3);
+	}
+
+	/**
+	 * Makes sure there's room for the given number of vertices past our current index,
+	 * flushing everything we hold if there isn't.
+	 *
+	 * @param vertices the number of vertices about to be written
+	 */
+	@Override
+	void ensure(int vertices) {
+		if ((index + vertices) * 6 <= raw.length)
+			return;
+		flush();
+		super.ensure(vertices);                     // if there still isn't room, there never will be.
+	}
+
+	/**
+	 * Draws every whole primitive we hold, then moves whatever vertices are still needed to the start of our buffer.
+	 */
+	private void flush() {
+		final int held = index;
+		final int drawn;                            // the number of vertices we can draw right now
+		final int from;                             // the first vertex that must be carried over
+		boolean fan = false;                        // whether the very first vertex must be carried over as well
+		switch (mode) {
+			case GL11.GL_POINTS:
+			case GL11.GL_LINES:
+			case GL11.GL_TRIANGLES:
+			case GL11.GL_QUADS:
+				drawn = from = held - held % vertices(mode);
+				break;
+			case GL11.GL_LINE_STRIP:
+				drawn = held;
+				from = held - 1;
+				break;
+			case GL11.GL_TRIANGLE_STRIP:
+				/* Only ever split after an even number of vertices, so the carried triangles keep their winding */
+				drawn = held & ~1;
+				from = drawn - 2;
+				break;
+			case GL11.GL_TRIANGLE_FAN:
+				drawn = held;
+				from = held - 1;
+				fan = true;
+				break;
+			default:
+				throw new IllegalStateException("Tessellator capacity of " + raw.length / 6
+						+ " vertices exceeded, and its mode cannot be split");
+		}
+
+		/* Draw the whole primitives, leaving our color and texture flags alone */
+		index = drawn;
+		bind();
+		pass(mode);
+
+		/* Carry the rest of the vertices over */
+		final int start = fan ? 1 : 0;
+		final int carried = held - from;
+		System.arraycopy(raw, from * 6, raw, start * 6, carried * 6);
+		iBuffer.clear();
+		index = start + carried;
+	}
+
+	/**
+	 * The second stage of rendering.
+	 * Also remembers the mode, so any later flushes will use it.
+	 *
+	 * @param mode The OpenGL mode to render the data with
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator pass(int mode) {
+		this.mode = mode;
+		return super.pass(mode);
+	}
+
+	/**
+	 * @param mode a mode made up of independent primitives
+	 * @return the number of vertices in each of its primitives
+	 */
+	private static int vertices(int mode) {
+		switch (mode) {
+			case GL11.GL_LINES:
+				return 2;
+			case GL11.GL_TRIANGLES:
+				return 3;
+			case GL11.GL_QUADS:
+				return 4;
+			default:
+				return 1;
+		}
+	}
+}
@@ -0,0 +1,489 @@
+package pw.knx.feather.tessellate;
+
+import org.lwjgl.opengl.GL11;
+import pw.knx.feather.structures.LongIntMap;
+
+import java.util.Arrays;
+
+import static pw.knx.feather.Feather.FEATHER;
+
+/**
+ * Gathers textured quads from across an entire frame, and draws them in as few batches as paint order allows.
+ * <p>
+ * Every quad is queued along with its state: the texture it samples and the blending it's drawn with.
+ * Consecutive quads sharing a state (the glyphs of a string, say) form a run, and every run keeps a
+ * screen-space bounding box. When drawn, each run joins the latest batch sharing its state, skipping
+ * ahead of every run queued in between, so long as it intersects none of them. A run that was queued over
+ * another run it intersects is always drawn after it, so the result looks exactly as if everything
+ * were drawn in order. Text over a column of identical widgets therefore becomes one batch of
+ * backgrounds and one batch of text.
+ * <p>
+ * To keep the intersection tests cheap, runs are filed in a uniform grid over the frame, and each run is only
+ * tested against the runs sharing a cell with it.
+ * <p>
+ * Alternatively, drawDepth() lets the depth buffer keep paint order instead. Every quad is given a z greater than
+ * the quad before it. Quads flagged as opaque are then drawn first, grouped freely by state, front-to-back with
+ * depth testing, so overdraw is rejected early. Translucent quads follow in the order they were queued, tested
+ * against, but not writing to, the depth buffer. Later quads must land nearer the viewer as their z grows, which
+ * both glOrtho() and Feather.ortho() guarantee, and the z of every quad must fall within the projection's depth range.
+ * <p>
+ * The voids in this class return the Frame Batch object for easy method chaining.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 15:55
+ */
+public class FrameBatch {
+
+	/**
+	 * The number of floats each queued quad takes up: x1, y1, x2, y2, u, v, u1, v1
+	 */
+	private static final int QUAD = 8;
+
+	/**
+	 * The smallest size, in pixels, of a grid cell
+	 */
+	private static final float CELL = 64;
+
+	/**
+	 * The largest number of grid cells along either axis
+	 */
+	private static final int CELLS = 64;
+
+	/**
+	 * The z given to each quad by drawDepth(), multiplied by its place in the queue. Small enough to fit a million
+	 * quads within [0, 1], and large enough to tell apart in a 24 bit depth buffer across [-1, 1].
+	 */
+	private static final float DEPTH_STEP = 1f / (1 << 20);
+
+	/**
+	 * Every queued quad, packed as described above, in the order they were queued
+	 */
+	private float[] quads = new float[64 * QUAD];
+
+	/**
+	 * The color of every queued quad, kept apart from the floats above so it's never carried in a float
+	 */
+	private int[] colors = new int[64];
+
+	/**
+	 * Whether each queued quad was flagged as opaque
+	 */
+	private boolean[] opaque = new boolean[64];
+
+	/**
+	 * The number of quads queued
+	 */
+	private int count;
+
+	/**
+	 * Whether every corner queued lies on a whole pixel within the range of a short (see integral())
+	 */
+	private boolean integral = true;
+
+	/**
+	 * The next quad sharing each queued quad's state, while drawing opaque quads with drawDepth()
+	 */
+	private int[] chain = new int[64];
+
+	/**
+	 * The vertices of a single quad, packed for Tessellator.addVertices()
+	 */
+	private final int[] vertices = new int[4 * 6];
+
+	/**
+	 * The state of every run: its texture in the upper half, and its blending in the lower half (see Feather.blendState())
+	 */
+	private long[] states = new long[16];
+
+	/**
+	 * The first quad of every run. Each run lasts until the first quad of the next.
+	 */
+	private int[] starts = new int[16];
+
+	/**
+	 * The bounding box of every run: min x, min y, max x, max y
+	 */
+	private float[] bounds = new float[16 * 4];
+
+	/**
+	 * The batch every run was placed in, and the next run within that batch (or -1)
+	 */
+	private int[] placed = new int[16], next = new int[16];
+
+	/**
+	 * The number of runs
+	 */
+	private int runs;
+
+	/**
+	 * The first and last runs of every batch, or the first and last quads of every batch drawn by drawDepth()
+	 */
+	private int[] heads = new int[16], tails = new int[16];
+
+	/**
+	 * The state of every batch of opaque quads drawn by drawDepth()
+	 */
+	private long[] groups = new long[16];
+
+	/**
+	 * The number of batches our last draw was split into
+	 */
+	private int batches;
+
+	/**
+	 * The latest batch of each state, while placing runs, or the batch of opaque quads of each state in drawDepth()
+	 */
+	private final LongIntMap latest = new LongIntMap(16);
+
+	/**
+	 * The grid: the first entry of each cell (or -1), and for every entry, its run and the next entry in its cell (or -1)
+	 */
+	private int[] cells = new int[0], entries = new int[64], following = new int[64];
+
+	/**
+	 * Queues a translucent quad. See below.
+	 *
+	 * @return The original Frame Batch
+	 */
+	public FrameBatch add(int texture, int blend, float x1, float y1, float x2, float y2,
+						  float u, float v, float u1, float v1, int color) {
+		return add(texture, blend, x1, y1, x2, y2, u, v, u1, v1, color, false);
+	}
+
+	/**
+	 * Queues a quad.
+	 *
+	 * @param texture The OpenGL ID of the texture the quad samples
+	 * @param blend   The blending the quad is drawn with, as given by Feather.blendState()
+	 * @param x1      The x coordinate of the first corner
+	 * @param y1      The y coordinate of the first corner
+	 * @param x2      The x coordinate of the opposite corner
+	 * @param y2      The y coordinate of the opposite corner
+	 * @param u       The horizontal texture coordinate of the first corner
+	 * @param v       The vertical texture coordinate of the first corner
+	 * @param u1      The horizontal texture coordinate of the opposite corner
+	 * @param v1      The vertical texture coordinate of the opposite corner
+	 * @param color   The color of the quad, in the same format as Tessellator.setColor()
+	 * @param opaque  Whether every pixel of the quad is fully opaque, so drawDepth() may draw it out of order
+	 * @return The original Frame Batch
+	 */
+	public FrameBatch add(int texture, int blend, float x1, float y1, float x2, float y2,
+						  float u, float v, float u1, float v1, int color, boolean opaque) {
+		if (this.count == this.opaque.length) {
+			this.quads = Arrays.copyOf(this.quads, this.count * 2 * QUAD);
+			this.colors = Arrays.copyOf(this.colors, this.count * 2);
+			this.opaque = Arrays.copyOf(this.opaque, this.count * 2);
+			this.chain = Arrays.copyOf(this.chain, this.count * 2);
+		}
+		this.opaque[this.count] = opaque;
+		this.colors[this.count] = color;
+		final int dex = this.count++ * QUAD;
+		this.quads[dex] = x1;
+		this.quads[dex + 1] = y1;
+		this.quads[dex + 2] = x2;
+		this.quads[dex + 3] = y2;
+		this.quads[dex + 4] = u;
+		this.quads[dex + 5] = v;
+		this.quads[dex + 6] = u1;
+		this.quads[dex + 7] = v1;
+		this.integral &= whole(x1) && whole(y1) && whole(x2) && whole(y2);
+
+		final long state = (long) texture << 32 | blend & 0xFFFFFFFFL;
+		if (this.runs == 0 || this.states[this.runs - 1] != state)
+			open(state, this.count - 1);
+		final int box = (this.runs - 1) * 4;
+		this.bounds[box] = Math.min(this.bounds[box], Math.min(x1, x2));
+		this.bounds[box + 1] = Math.min(this.bounds[box + 1], Math.min(y1, y2));
+		this.bounds[box + 2] = Math.max(this.bounds[box + 2], Math.max(x1, x2));
+		this.bounds[box + 3] = Math.max(this.bounds[box + 3], Math.max(y1, y2));
+		return this;
+	}
+
+	/**
+	 * Starts a new run.
+	 *
+	 * @param state the state of the new run
+	 * @param quad  the first quad of the new run
+	 */
+	private void open(long state, int quad) {
+		if (this.runs == this.states.length) {
+			final int size = this.runs * 2;
+			this.states = Arrays.copyOf(this.states, size);
+			this.starts = Arrays.copyOf(this.starts, size);
+			this.bounds = Arrays.copyOf(this.bounds, size * 4);
+			this.placed = Arrays.copyOf(this.placed, size);
+			this.next = Arrays.copyOf(this.next, size);
+			this.heads = Arrays.copyOf(this.heads, size);
+			this.tails = Arrays.copyOf(this.tails, size);
+			this.groups = Arrays.copyOf(this.groups, size);
+		}
+		final int run = this.runs++;
+		this.states[run] = state;
+		this.starts[run] = quad;
+		final int box = run * 4;
+		this.bounds[box] = this.bounds[box + 1] = Float.POSITIVE_INFINITY;
+		this.bounds[box + 2] = this.bounds[box + 3] = Float.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * Places every run in a batch, as described in the Class Documentation.
+	 */
+	private void place() {
+		/* Size the grid to the frame's bounds, so it never has more than CELLS cells along either axis */
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+		for (int box = 0; box < this.runs * 4; box += 4) {
+			minX = Math.min(minX, this.bounds[box]);
+			minY = Math.min(minY, this.bounds[box + 1]);
+			maxX = Math.max(maxX, this.bounds[box + 2]);
+			maxY = Math.max(maxY, this.bounds[box + 3]);
+		}
+		final float size = Math.max(CELL, Math.max(maxX - minX, maxY - minY) / CELLS);
+		final int columns = Math.min(CELLS, (int) ((maxX - minX) / size) + 1);
+		final int rows = Math.min(CELLS, (int) ((maxY - minY) / size) + 1);
+		if (this.cells.length < columns * rows)
+			this.cells = new int[columns * rows];
+		Arrays.fill(this.cells, 0, columns * rows, -1);
+		int filed = 0;
+
+		this.batches = 0;
+		this.latest.clear();
+		for (int run = 0; run < this.runs; run++) {
+			final int box = run * 4;
+			final int left = Math.min(columns - 1, (int) ((this.bounds[box] - minX) / size));
+			final int top = Math.min(rows - 1, (int) ((this.bounds[box + 1] - minY) / size));
+			final int right = Math.min(columns - 1, (int) ((this.bounds[box + 2] - minX) / size));
+			final int bottom = Math.min(rows - 1, (int) ((this.bounds[box + 3] - minY) / size));
+
+			/* Find the latest batch holding a run we intersect, which we must be drawn after */
+			int after = -1;
+			for (int row = top; row <= bottom; row++)
+				for (int column = left; column <= right; column++)
+					for (int entry = this.cells[row * columns + column]; entry != -1; entry = this.following[entry]) {
+						final int other = this.entries[entry];
+						if (this.placed[other] > after && intersects(run, other))
+							after = this.placed[other];
+					}
+
+			/* Join the latest batch with our state, if it isn't before that batch, or start a new one */
+			final int latest = this.latest.get(this.states[run]);
+			final int batch;
+			if (latest != -1 && latest >= after) {
+				batch = latest;
+				this.next[this.tails[batch]] = run;
+			} else {
+				batch = this.batches++;
+				this.heads[batch] = run;
+				this.latest.put(this.states[run], batch);
+			}
+			this.tails[batch] = run;
+			this.placed[run] = batch;
+			this.next[run] = -1;
+
+			/* File ourselves in every cell we touch */
+			for (int row = top; row <= bottom; row++)
+				for (int column = left; column <= right; column++) {
+					if (filed == this.entries.length) {
+						this.entries = Arrays.copyOf(this.entries, filed * 2);
+						this.following = Arrays.copyOf(this.following, filed * 2);
+					}
+					final int cell = row * columns + column;
+					this.entries[filed] = run;
+					this.following[filed] = this.cells[cell];
+					this.cells[cell] = filed++;
+				}
+		}
+	}
+
+	/**
+	 * @return whether the bounding boxes of the given runs intersect (touching edges don't count)
+	 */
+	private boolean intersects(int run, int other) {
+		final int a = run * 4, b = other * 4;
+		return this.bounds[a] < this.bounds[b + 2] && this.bounds[a + 2] > this.bounds[b]
+				&& this.bounds[a + 1] < this.bounds[b + 3] && this.bounds[a + 3] > this.bounds[b + 1];
+	}
+
+	/**
+	 * Draws every queued quad through the given Tessellator, one batch at a time, and empties the Frame Batch.
+	 *
+	 * @param tess The Tessellator to draw through, which should be empty
+	 * @return The number of batches drawn
+	 */
+	public int draw(Tessellator tess) {
+		if (this.runs == 0)
+			return this.batches = 0;
+		place();
+		final float[] q = this.quads;
+		for (int batch = 0; batch < this.batches; batch++) {
+			apply(this.states[this.heads[batch]]);
+			for (int run = this.heads[batch]; run != -1; run = this.next[run]) {
+				final int end = run + 1 < this.runs ? this.starts[run + 1] : this.count;
+				for (int quad = this.starts[run], dex = quad * QUAD; quad < end; quad++, dex += QUAD)
+					tess.addQuad(q[dex], q[dex + 1], q[dex + 2], q[dex + 3], q[dex + 4], q[dex + 5], q[dex + 6], q[dex + 7],
+							this.colors[quad]);
+			}
+			tess.draw(GL11.GL_QUADS);
+		}
+		FEATHER.setDistanceField(false);
+		this.count = this.runs = 0;
+		this.integral = true;
+		return this.batches;
+	}
+
+	/**
+	 * Draws every queued quad through the given Tessellator with the help of the depth buffer, and empties the Frame Batch.
+	 * See Class Documentation. The depth buffer is cleared first, as everything queued lands above whatever was drawn before.
+	 * The host's depth test, depth function, and depth write mask are queried first and put back afterwards.
+	 *
+	 * @param tess The Tessellator to draw through, which should be empty
+	 * @return The number of batches drawn
+	 */
+	public int drawDepth(Tessellator tess) {
+		if (this.runs == 0)
+			return this.batches = 0;
+
+		/* Save the host's depth state, to be put back once we're done */
+		final boolean depthTest = GL11.glIsEnabled(GL11.GL_DEPTH_TEST);
+		final int depthFunc = GL11.glGetInteger(GL11.GL_DEPTH_FUNC);
+		final boolean depthMask = GL11.glGetBoolean(GL11.GL_DEPTH_WRITEMASK);
+		GL11.glDepthMask(true);
+		GL11.glClear(GL11.GL_DEPTH_BUFFER_BIT);
+		GL11.glEnable(GL11.GL_DEPTH_TEST);
+		GL11.glDepthFunc(GL11.GL_LESS);
+
+		/* Chain the opaque quads of each state together, front (last queued) to back */
+		this.latest.clear();
+		int states = 0;
+		for (int run = this.runs - 1; run >= 0; run--) {
+			final int end = run + 1 < this.runs ? this.starts[run + 1] : this.count;
+			for (int quad = end - 1; quad >= this.starts[run]; quad--) {
+				if (!this.opaque[quad])
+					continue;
+				final int group = this.latest.get(this.states[run]);
+				this.chain[quad] = -1;
+				if (group == -1) {
+					this.heads[states] = this.tails[states] = quad;
+					this.groups[states] = this.states[run];
+					this.latest.put(this.states[run], states++);
+				} else {
+					this.chain[this.tails[group]] = quad;
+					this.tails[group] = quad;
+				}
+			}
+		}
+
+		/* Draw them, one batch per state */
+		for (int group = 0; group < states; group++) {
+			apply(this.groups[group]);
+			for (int quad = this.heads[group]; quad != -1; quad = this.chain[quad])
+				addQuad(tess, quad);
+			tess.draw(GL11.GL_QUADS);
+		}
+		this.batches = states;
+
+		/* Draw the translucent quads in order, breaking the batch only when the state changes */
+		GL11.glDepthMask(false);
+		long current = 0;
+		boolean pending = false;
+		for (int run = 0; run < this.runs; run++) {
+			final int end = run + 1 < this.runs ? this.starts[run + 1] : this.count;
+			for (int quad = this.starts[run]; quad < end; quad++) {
+				if (this.opaque[quad])
+					continue;
+				if (!pending || this.states[run] != current) {
+					if (pending) {
+						tess.draw(GL11.GL_QUADS);
+						this.batches++;
+					}
+					apply(current = this.states[run]);
+					pending = true;
+				}
+				addQuad(tess, quad);
+			}
+		}
+		if (pending) {
+			tess.draw(GL11.GL_QUADS);
+			this.batches++;
+		}
+
+		GL11.glDepthMask(depthMask);
+		GL11.glDepthFunc(depthFunc);
+		if (!depthTest)
+			GL11.glDisable(GL11.GL_DEPTH_TEST);
+		FEATHER.setDistanceField(false);
+		this.count = this.runs = 0;
+		this.integral = true;
+		return this.batches;
+	}
+
+	/**
+	 * Enters a queued quad into the given Tessellator, at the z of its place in the queue.
+	 *
+	 * @param tess The Tessellator to enter the quad into
+	 * @param quad The index of the quad
+	 */
+	private void addQuad(Tessellator tess, int quad) {
+		final float[] q = this.quads;
+		final int[] out = this.vertices;
+		final int dex = quad * QUAD;
+		final float z = (quad + 1) * DEPTH_STEP;
+		final int color = this.colors[quad];
+		vertex(out, 0, q[dex], q[dex + 1], z, color, q[dex + 4], q[dex + 5]);
+		vertex(out, 6, q[dex], q[dex + 3], z, color, q[dex + 4], q[dex + 7]);
+		vertex(out, 12, q[dex + 2], q[dex + 3], z, color, q[dex + 6], q[dex + 7]);
+		vertex(out, 18, q[dex + 2], q[dex + 1], z, color, q[dex + 6], q[dex + 5]);
+		tess.addVertices(out, 0, 4);
+	}
+
+	/**
+	 * Packs a single vertex for Tessellator.addVertices().
+	 */
+	private static void vertex(int[] out, int dex, float x, float y, float z, int color, float u, float v) {
+		out[dex] = Float.floatToRawIntBits(x);
+		out[dex + 1] = Float.floatToRawIntBits(y);
+		out[dex + 2] = Float.floatToRawIntBits(z);
+		out[dex + 3] = color;
+		out[dex + 4] = Float.floatToRawIntBits(u);
+		out[dex + 5] = Float.floatToRawIntBits(v);
+	}
+
+	/**
+	 * @return whether the given coordinate is a whole number that fits in a short
+	 */
+	private static boolean whole(float value) {
+		return value == (short) value;
+	}
+
+	/**
+	 * Makes the given state current.
+	 *
+	 * @param state a state, packed as in our states array
+	 */
+	private static void apply(long state) {
+		final int texture = (int) (state >>> 32);
+		FEATHER.bindTexture(texture).setBlendState((int) state).setDistanceField(FEATHER.isDistanceField(texture));
+	}
+
+	/**
+	 * @return the number of quads queued
+	 */
+	public int count() {
+		return this.count;
+	}
+
+	/**
+	 * @return whether every corner queued lies on a whole pixel within the range of a short, so draw() loses nothing
+	 * through a Tessellator storing positions as shorts (see VertexFormat.COMPACT_2D)
+	 */
+	public boolean integral() {
+		return this.integral;
+	}
+
+	/**
+	 * @return the number of batches our last draw was split into
+	 */
+	public int batches() {
+		return this.batches;
+	}
+}
@@ -0,0 +1,107 @@
+package pw.knx.feather.tessellate;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static pw.knx.feather.Feather.FEATHER;
+
+/**
+ * A buffer object backed implementation of the Tessellator interface, for OpenGL 1.5 and 2.x contexts.
+ * <p>
+ * Vertices are written into native memory exactly like the Direct Tessellator. Upon binding, however,
+ * they're uploaded into a Vertex Buffer Object rather than being handed to OpenGL as a client-side array.
+ * To avoid the implicit synchronization of overwriting a buffer object the GPU may still be reading from,
+ * the buffer object is "orphaned" first: either by respecifying its storage with glBufferData(null), or, where
+ * ARB_map_buffer_range is available, by mapping it with GL_MAP_INVALIDATE_BUFFER_BIT | GL_MAP_UNSYNCHRONIZED_BIT.
+ * Either way, the driver hands us fresh storage while the old storage lives on until the GPU is done with it.
+ * <p>
+ * The voids in this interface return the Tessellator object for easy method chaining.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 10:31
+ */
+public class OrphanTess extends DirectTess {
+
+	/**
+	 * The OpenGL ID of the buffer object we upload to
+	 */
+	private final int id;
+
+	/**
+	 * Whether this context allows us to orphan and upload by mapping the buffer object
+	 */
+	private final boolean mapRange;
+
+	/**
+	 * Constructs an Orphaning Tessellator. See Class Documentation for more information.
+	 *
+	 * @param capacity The total capacity, in whole vertices, that this Tessellator will be able to render at once.
+	 * @param format   The layout of every vertex this Tessellator will write
+	 */
+	OrphanTess(int capacity, VertexFormat format) {
+		super(capacity, format);
+		final GLCapabilities caps = GL.getCapabilities();
+		this.mapRange = caps.OpenGL30 || caps.GL_ARB_map_buffer_range;
+		this.id = glGenBuffers();
+		FEATHER.bindBuffer(this.id);
+		glBufferData(GL_ARRAY_BUFFER, (long) capacity * this.stride, GL_STREAM_DRAW);
+		FEATHER.bindBuffer(0);
+	}
+
+	/**
+	 * The first stage of rendering.
+	 * Orphans our buffer object, uploads the vertices we've written so far, and points OpenGL at them.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator bind() {
+		FEATHER.bindBuffer(this.id);
+		if (this.index > 0)                         // mapping an empty range is an error, and there's nothing to upload anyways.
+			upload((long) this.index * this.stride);
+		pointers(0L);
+		FEATHER.bindBuffer(0);                      // the pointers remember our buffer object, so it needn't stay bound.
+		return this;
+	}
+
+	/**
+	 * Orphans the storage of our (bound) buffer object and fills its replacement with our vertices.
+	 * Falls back to respecifying the storage whenever mapping it fails.
+	 *
+	 * @param size the number of bytes to upload
+	 */
+	private void upload(long size) {
+		if (this.mapRange) {
+			final ByteBuffer mapped = glMapBufferRange(GL_ARRAY_BUFFER, 0, size,
+					GL_MAP_WRITE_BIT | GL_MAP_INVALIDATE_BUFFER_BIT | GL_MAP_UNSYNCHRONIZED_BIT);
+			if (mapped != null) {
+				memCopy(this.address, memAddress(mapped), size);
+				if (glUnmapBuffer(GL_ARRAY_BUFFER))
+					return;
+			}
+			// the driver refused to map our buffer object, or lost its contents while it was mapped. respecify it instead.
+		}
+		glBufferData(GL_ARRAY_BUFFER, (long) this.capacity * this.stride, GL_STREAM_DRAW);
+		nglBufferSubData(GL_ARRAY_BUFFER, 0, size, this.address);
+	}
+
+	/**
+	 * Deletes our buffer object.
+	 */
+	@Override
+	public void delete() {
+		FEATHER.deleteBuffer(this.id);
+	}
+
+	/**
+	 * @return whether the current OpenGL context is able to create an Orphaning Tessellator
+	 */
+	static boolean supported() {
+		return GL.getCapabilities().OpenGL15;
+	}
+}
@@ -0,0 +1,100 @@
+package pw.knx.feather.tessellate;
+
+import org.lwjgl.opengl.GL11;
+import pw.knx.feather.Feather;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.lwjgl.opengl.GL15.*;
+import static pw.knx.feather.Feather.FEATHER;
+
+/**
+ * A single, shared, static index buffer that lets quads be drawn as GL_TRIANGLES.
+ * <p>
+ * GL_QUADS is gone from core profile contexts, and many drivers that do support it convert each quad
+ * into a pair of triangles on the CPU. Rather than paying for that on every draw, every quad batch is
+ * drawn with glDrawElements(GL_TRIANGLES) through this index buffer, which holds the pattern
+ * (0, 1, 2, 2, 3, 0) for as many quads as we've ever needed, offset by 4 for each quad.
+ * <p>
+ * The index buffer starts out empty and grows (doubling) the first time a larger batch is drawn.
+ * Indices are shorts until a batch outgrows what a short can address, at which point they become integers.
+ * <p>
+ * On the core backend, the index buffer is left bound within Feather's own vertex array object, so binding it for the
+ * next batch is skipped. On the legacy backend, it's unbound after every draw, so it never turns the pointer passed to a
+ * host's own client-side glDrawElements() into an offset within our index buffer.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 11:47
+ */
+public final class QuadIndices {
+
+	/**
+	 * The largest number of quads whose indices still fit within an unsigned short
+	 */
+	private static final int SHORT_QUADS = 0x10000 / 4;
+
+	/**
+	 * The OpenGL ID of our index buffer, or 0 if it hasn't been created yet
+	 */
+	private static int id;
+
+	/**
+	 * The number of quads our index buffer currently holds indices for
+	 */
+	private static int capacity;
+
+	/**
+	 * The OpenGL type of our indices, either GL_UNSIGNED_SHORT or GL_UNSIGNED_INT
+	 */
+	private static int type = GL11.GL_UNSIGNED_SHORT;
+
+	private QuadIndices() {
+	}
+
+	/**
+	 * Draws the bound vertex data as quads, four vertices to a quad, using GL_TRIANGLES.
+	 * Any vertices left over past the last whole quad are ignored, just like GL_QUADS.
+	 *
+	 * @param vertices the number of vertices to draw, starting from the first
+	 */
+	public static void draw(int vertices) {
+		final int quads = vertices / 4;
+		if (quads == 0)
+			return;
+		if (quads > capacity)
+			grow(quads);
+		FEATHER.bindElementBuffer(id);
+		GL11.glDrawElements(GL11.GL_TRIANGLES, quads * 6, type, 0L);
+		if (FEATHER.backend() != Feather.Backend.CORE)  // outside our own vertex array object, it would turn the host's client-side indices into offsets.
+			FEATHER.bindElementBuffer(0);
+	}
+
+	/**
+	 * Regenerates our index buffer so it holds indices for at least the requested number of quads.
+	 *
+	 * @param quads the number of quads we must be able to draw
+	 */
+	private static void grow(int quads) {
+		capacity = Math.max(quads, capacity * 2);
+		if (id == 0)
+			id = glGenBuffers();
+
+		final boolean shorts = capacity <= SHORT_QUADS;
+		type = shorts ? GL11.GL_UNSIGNED_SHORT : GL11.GL_UNSIGNED_INT;
+		final ByteBuffer indices = ByteBuffer.allocateDirect(capacity * 6 * (shorts ? 2 : 4)).order(ByteOrder.nativeOrder());
+		for (int quad = 0, vertex = 0; quad < capacity; quad++, vertex += 4) {
+			if (shorts) {
+				indices.putShort((short) vertex).putShort((short) (vertex + 1)).putShort((short) (vertex + 2));
+				indices.putShort((short) (vertex + 2)).putShort((short) (vertex + 3)).putShort((short) vertex);
+			} else {
+				indices.putInt(vertex).putInt(vertex + 1).putInt(vertex + 2);
+				indices.putInt(vertex + 2).putInt(vertex + 3).putInt(vertex);
+			}
+		}
+		indices.flip();
+
+		FEATHER.bindElementBuffer(id);
+		glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
+	}
+}
@@ -0,0 +1,207 @@
+package pw.knx.feather.tessellate;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import pw.knx.feather.structures.Mesh;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.opengl.GL44.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static pw.knx.feather.Feather.FEATHER;
+
+/**
+ * A streaming implementation of the Tessellator interface, for OpenGL 4.4 (or ARB_buffer_storage) contexts.
+ * <p>
+ * Rather than handing OpenGL a client-side array that the driver must copy on every draw, this Tessellator
+ * writes its vertices directly into a Vertex Buffer Object that stays persistently and coherently mapped for its
+ * whole lifetime. The buffer object is split into three regions which are used as a ring: batches are written
+ * one after another into the current region, and once a region fills up it is fenced and writing moves on to
+ * the next one. By the time we come back around to a region, the GPU has long since finished reading it, so
+ * waiting on its fence is (almost) always free.
+ * <p>
+ * Each region holds the full capacity of the Tessellator, so any single batch will always fit in a fresh region.
+ * Writing past that capacity throws an error, just like the Basic Tessellator.
+ * <p>
+ * The voids in this interface return the Tessellator object for easy method chaining.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 10:05
+ */
+public class StreamingTess extends DirectTess {
+
+	/**
+	 * The number of regions our buffer object is split into. Three regions let the CPU write one
+	 * while the GPU reads another, with a third as slack for the driver queueing a frame ahead.
+	 */
+	private static final int REGIONS = 3;
+
+	/**
+	 * The flags our buffer object is both allocated and mapped with
+	 */
+	private static final int FLAGS = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+
+	/**
+	 * How long, in nanoseconds, to block on a single glClientWaitSync() before checking the fence again
+	 */
+	private static final long TIMEOUT = 1000000L;
+
+	/**
+	 * The OpenGL ID of the buffer object we stream to
+	 */
+	private final int id;
+
+	/**
+	 * The native address of the start of our mapped buffer object
+	 */
+	private final long base;
+
+	/**
+	 * The fences guarding each region, or NULL if a region has no pending GPU work
+	 */
+	private final long[] fences = new long[REGIONS];
+
+	/**
+	 * The region we're currently writing to
+	 */
+	private int region;
+
+	/**
+	 * The vertex, relative to the start of the entire buffer object, that the current batch starts at
+	 */
+	private int start;
+
+	/**
+	 * Constructs a Streaming Tessellator. See Class Documentation for more information.
+	 *
+	 * @param capacity The total capacity, in whole vertices, that this Tessellator will be able to render at once.
+	 * @param format   The layout of every vertex this Tessellator will write
+	 */
+	StreamingTess(int capacity, VertexFormat format) {
+		super(null, capacity, format);
+		final long size = (long) capacity * this.stride * REGIONS;
+		this.id = glGenBuffers();
+		FEATHER.bindBuffer(this.id);
+		glBufferStorage(GL_ARRAY_BUFFER, size, FLAGS);
+		this.buffer = glMapBufferRange(GL_ARRAY_BUFFER, 0, size, FLAGS);
+		FEATHER.bindBuffer(0);
+		this.base = this.address = memAddress(this.buffer);
+	}
+
+	/**
+	 * The current batch is about to outgrow what is left of the current region. Fence the current
+	 * region, move on to the next one, and carry the vertices of the current batch along with us.
+	 */
+	@Override
+	void overflow(int vertices) {
+		if (this.index + vertices > this.capacity)
+			super.overflow(vertices);
+
+		this.fences[this.region] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+		this.region = (this.region + 1) % REGIONS;
+		await(this.region);
+
+		this.start = this.region * this.capacity;
+		final long address = this.base + (long) this.start * this.stride;
+		memCopy(this.address, address, (long) this.index * this.stride);
+		this.address = address;
+		this.limit = this.capacity;
+	}
+
+	/**
+	 * Blocks until the GPU has finished reading from the given region.
+	 *
+	 * @param region the region that is about to be written to
+	 */
+	private void await(int region) {
+		final long fence = this.fences[region];
+		if (fence == NULL)
+			return;
+		while (true) {
+			final int status = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, TIMEOUT);
+			if (status == GL_ALREADY_SIGNALED || status == GL_CONDITION_SATISFIED)
+				break;
+			if (status == GL_WAIT_FAILED)
+				throw new IllegalStateException("Failed to wait on a Tessellator region's fence");
+		}
+		glDeleteSync(fence);
+		this.fences[region] = NULL;
+	}
+
+	/**
+	 * The first stage of rendering.
+	 * Points OpenGL at the current batch within our buffer object. As our mapping is coherent,
+	 * everything we've written is already visible to the GPU.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator bind() {
+		FEATHER.bindBuffer(this.id);
+		pointers((long) this.start * this.stride);
+		FEATHER.bindBuffer(0);                      // the pointers remember our buffer object, so it needn't stay bound.
+		return this;
+	}
+
+	/**
+	 * Copies the current batch into a new buffer object, entirely on the GPU, and returns a Mesh that draws it.
+	 * Our mapping is write-only, so reading the batch back through it is never an option.
+	 *
+	 * @return the freshly compiled Mesh
+	 */
+	@Override
+	public Mesh compile() {
+		final long size = (long) this.index * this.stride;
+		final int id = glGenBuffers();
+		glBindBuffer(GL_COPY_WRITE_BUFFER, id);
+		glBufferData(GL_COPY_WRITE_BUFFER, size, GL_STATIC_DRAW);
+		glBindBuffer(GL_COPY_READ_BUFFER, this.id);
+		glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER, (long) this.start * this.stride, 0, size);
+		glBindBuffer(GL_COPY_READ_BUFFER, 0);
+		glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+		return new Mesh(id, this.format, this.index, this.color, this.texture);
+	}
+
+	/**
+	 * The third and final stage of rendering.
+	 * Moves past the current batch so the next one can be written behind it.
+	 * Passes can no longer be made after this method is executed.
+	 *
+	 * @return The original Tessellator Object
+	 */
+	@Override
+	public Tessellator reset() {
+		this.start += this.index;
+		this.address += (long) this.index * this.stride;
+		this.limit = (this.region + 1) * this.capacity - this.start;
+		return super.reset();
+	}
+
+	/**
+	 * Unmaps and deletes our buffer object, along with any fences still pending.
+	 */
+	@Override
+	public void delete() {
+		for (int i = 0; i < REGIONS; i++) {
+			if (this.fences[i] != NULL)
+				glDeleteSync(this.fences[i]);
+			this.fences[i] = NULL;
+		}
+		FEATHER.bindBuffer(this.id);
+		glUnmapBuffer(GL_ARRAY_BUFFER);
+		FEATHER.bindBuffer(0);
+		FEATHER.deleteBuffer(this.id);
+	}
+
+	/**
+	 * @return whether the current OpenGL context is able to create a Streaming Tessellator
+	 */
+	static boolean supported() {
+		final GLCapabilities caps = GL.getCapabilities();
+		return (caps.OpenGL44 || caps.GL_ARB_buffer_storage) && (caps.OpenGL32 || caps.GL_ARB_sync);
+	}
+}
@@ -1,10 +1,16 @@
 package pw.knx.feather.tessellate;
 
 import pw.knx.feather.structures.Color;
+import pw.knx.feather.structures.Matrix;
+import pw.knx.feather.structures.Mesh;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 
 /**
  * A standard abstract interface for an OpenGL Tessellator.
- * This abstraction supports purely vertices, texture, and color.
+ * This abstraction supports purely vertices, texture, and color, along with
+ * normals and custom attributes for Tessellators created with a VertexFormat.
  * The voids in this interface return the Tessellator object for easy method chaining
  *
  * @author KNOXDEV
@@ -41,6 +47,16 @@ public interface Tessellator {
 	 */
 	Tessellator setTexture(float u, float v);
 
+	/**
+	 * Sets the Matrix every upcoming vertex is transformed by as it's entered, such as Feather.matrix().
+	 * The Matrix is referenced rather than copied, so changing it afterwards affects every vertex entered from then on.
+	 * Transforming on the CPU means differently transformed geometry can still be drawn in a single batch.
+	 *
+	 * @param matrix The Matrix to transform upcoming vertices by, or null to enter them untransformed
+	 * @return The original Tessellator Object
+	 */
+	Tessellator setTransform(Matrix matrix);
+
 	/**
 	 * Enters a vertex of the shape to be rendered.
 	 * All data fed to the Tessellator relies on the vertex data,
@@ -53,6 +69,100 @@ public interface Tessellator {
 	 */
 	Tessellator addVertex(float x, float y, float z);
 
+	/**
+	 * Enters an entire textured quad in one call, as four vertices on the z = 0 plane.
+	 * The vertices are entered in the order (x1, y1), (x1, y2), (x2, y2), (x2, y1),
+	 * so the quad can be rendered with either GL_QUADS or GL_TRIANGLE_FAN.
+	 *
+	 * @param x1 The x coordinate of the quad's first corner
+	 * @param y1 The y coordinate of the quad's first corner
+	 * @param x2 The x coordinate of the quad's opposite corner
+	 * @param y2 The y coordinate of the quad's opposite corner
+	 * @param u  The x texture coordinate of the quad's first corner
+	 * @param v  The y texture coordinate of the quad's first corner
+	 * @param u1 The x texture coordinate of the quad's opposite corner
+	 * @param v1 The y texture coordinate of the quad's opposite corner
+	 * @return The original Tessellator Object
+	 */
+	default Tessellator addQuad(float x1, float y1, float x2, float y2, float u, float v, float u1, float v1) {
+		setTexture(u, v).addVertex(x1, y1, 0);
+		setTexture(u, v1).addVertex(x1, y2, 0);
+		setTexture(u1, v1).addVertex(x2, y2, 0);
+		return setTexture(u1, v).addVertex(x2, y1, 0);
+	}
+
+	/**
+	 * Enters an entire textured, colored quad in one call. See above.
+	 *
+	 * @param color The color of the quad, in ABGR format
+	 * @return The original Tessellator Object
+	 */
+	default Tessellator addQuad(float x1, float y1, float x2, float y2, float u, float v, float u1, float v1, int color) {
+		return setColor(color).addQuad(x1, y1, x2, y2, u, v, u1, v1);
+	}
+
+	/**
+	 * Enters a series of packed vertices in one call. Each vertex is six integers long, laid
+	 * out exactly as the Basic Tessellator stores them: x, y, z, color, u, v. The coordinates are
+	 * floats stored with Float.floatToRawIntBits(), and the color is the ABGR integer itself.
+	 *
+	 * @param packed The array containing the packed vertices
+	 * @param offset The index in the array of the first integer of the first vertex
+	 * @param count  The number of whole vertices to enter
+	 * @return The original Tessellator Object
+	 */
+	default Tessellator addVertices(int[] packed, int offset, int count) {
+		for (int i = 0, dex = offset; i < count; i++, dex += 6)
+			setColor(packed[dex + 3]).setTexture(Float.intBitsToFloat(packed[dex + 4]), Float.intBitsToFloat(packed[dex + 5]))
+					.addVertex(Float.intBitsToFloat(packed[dex]), Float.intBitsToFloat(packed[dex + 1]), Float.intBitsToFloat(packed[dex + 2]));
+		return this;
+	}
+
+	/**
+	 * Enters every quad remaining in the buffers in one call. Each quad is eight floats long, matching
+	 * the arguments of addQuad(): x1, y1, x2, y2, u, v, u1, v1, and its color is the next ABGR integer in
+	 * the colors buffer. Stops as soon as either buffer runs out, and advances both past every quad read.
+	 *
+	 * @param quads  The buffer containing the packed quads
+	 * @param colors The buffer containing the color of each quad
+	 * @return The original Tessellator Object
+	 */
+	default Tessellator addQuads(FloatBuffer quads, IntBuffer colors) {
+		while (quads.remaining() >= 8 && colors.hasRemaining())
+			addQuad(quads.get(), quads.get(), quads.get(), quads.get(), quads.get(), quads.get(), quads.get(),
+					quads.get(), colors.get());
+		return this;
+	}
+
+	/**
+	 * Set the normal to associate the upcoming vertex data with.
+	 * Tessellators whose vertex layout has no room for normals simply ignore them.
+	 *
+	 * @param x The x component of the normal
+	 * @param y The y component of the normal
+	 * @param z The z component of the normal
+	 * @return The original Tessellator Object
+	 */
+	default Tessellator setNormal(float x, float y, float z) {
+		return this;
+	}
+
+	/**
+	 * Set a custom attribute to associate the upcoming vertex data with.
+	 * Components beyond the size of the attribute are ignored, as are attributes
+	 * on Tessellators whose vertex layout has no room for them.
+	 *
+	 * @param attribute The index of the custom attribute, in the order it was added to the VertexFormat
+	 * @param x         The first component of the attribute
+	 * @param y         The second component of the attribute
+	 * @param z         The third component of the attribute
+	 * @param w         The fourth component of the attribute
+	 * @return The original Tessellator Object
+	 */
+	default Tessellator setAttribute(int attribute, float x, float y, float z, float w) {
+		return this;
+	}
+
 
 	/*
 	 * Render Commands - These provide fine-tuned control over the
@@ -115,6 +225,28 @@ public interface Tessellator {
 		return this.bind().pass(mode).reset();
 	}
 
+	/**
+	 * Uploads the Tessellator's current contents, once, into a new buffer object, and returns
+	 * a Mesh that can draw them again and again without any more tessellation.
+	 * The Tessellator's contents are left alone, so you'll likely want to reset() it afterwards.
+	 * <p>
+	 * Every Tessellator in this package supports this, but one implemented elsewhere needn't:
+	 * by default, this simply throws.
+	 *
+	 * @return the freshly compiled Mesh
+	 * @throws UnsupportedOperationException if this Tessellator can't be compiled into a Mesh
+	 */
+	default Mesh compile() {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " can't be compiled into a Mesh");
+	}
+
+	/**
+	 * Releases any OpenGL objects or native memory held by this Tessellator.
+	 * The Tessellator can no longer be used after this method is executed.
+	 */
+	default void delete() {
+	}
+
 
 	/*
 	 * Static Constructors - allows intuitive initialization of a Tessellator to fit any purpose
@@ -131,14 +263,140 @@ public interface Tessellator {
 	}
 
 	/**
-	 * Creates a growing Tessellator that will increase in capacity as its limit is reached
+	 * Creates an <i>immutable</i> Tessellator that writes its vertices directly into native memory,
+	 * skipping the staging array the Basic Tessellator copies from on every bind
+	 *
+	 * @param size the initial (and final) capacity of this Tessellator
+	 * @return the requested Direct Tessellator
+	 */
+	static Tessellator createDirect(int size) {
+		return createDirect(size, VertexFormat.DEFAULT);
+	}
+
+	/**
+	 * Creates an <i>immutable</i> Direct Tessellator that lays its vertices out in the format provided
+	 *
+	 * @param size   the initial (and final) capacity of this Tessellator
+	 * @param format the layout of every vertex this Tessellator will write
+	 * @return the requested Direct Tessellator
+	 */
+	static Tessellator createDirect(int size, VertexFormat format) {
+		return new DirectTess(size, format);
+	}
+
+	/**
+	 * Creates a Tessellator that streams its vertices into a persistently mapped buffer object,
+	 * so the driver never has to copy them from client memory when drawing. If the current context
+	 * doesn't support persistent mapping (OpenGL 4.4), an Orphaning Tessellator is returned instead,
+	 * or a Direct Tessellator if the context doesn't support buffer objects at all.
+	 * <p>
+	 * Must be called with an OpenGL context current.
+	 *
+	 * @param size the initial (and final) capacity of this Tessellator
+	 * @return the requested Streaming Tessellator, or the fallback if it's unsupported
+	 */
+	static Tessellator createStreaming(int size) {
+		return createStreaming(size, VertexFormat.DEFAULT);
+	}
+
+	/**
+	 * Creates a Streaming Tessellator that lays its vertices out in the format provided,
+	 * falling back just like {@link #createStreaming(int)} does.
+	 *
+	 * @param size   the initial (and final) capacity of this Tessellator
+	 * @param format the layout of every vertex this Tessellator will write
+	 * @return the requested Streaming Tessellator, or the fallback if it's unsupported
+	 */
+	static Tessellator createStreaming(int size, VertexFormat format) {
+		return StreamingTess.supported() ? new StreamingTess(size, format) : createOrphaning(size, format);
+	}
+
+	/**
+	 * Creates a Tessellator that uploads its vertices into a buffer object upon binding, orphaning the
+	 * buffer object's old storage first so it never waits on the GPU. Suited to OpenGL 1.5 and 2.x contexts.
+	 * If the current context doesn't support buffer objects, a Direct Tessellator is returned instead.
+	 * <p>
+	 * Must be called with an OpenGL context current.
+	 *
+	 * @param size the initial (and final) capacity of this Tessellator
+	 * @return the requested Orphaning Tessellator, or the fallback if it's unsupported
+	 */
+	static Tessellator createOrphaning(int size) {
+		return createOrphaning(size, VertexFormat.DEFAULT);
+	}
+
+	/**
+	 * Creates an Orphaning Tessellator that lays its vertices out in the format provided,
+	 * falling back just like {@link #createOrphaning(int)} does.
+	 *
+	 * @param size   the initial (and final) capacity of this Tessellator
+	 * @param format the layout of every vertex this Tessellator will write
+	 * @return the requested Orphaning Tessellator, or the fallback if it's unsupported
+	 */
+	static Tessellator createOrphaning(int size, VertexFormat format) {
+		return OrphanTess.supported() ? new OrphanTess(size, format) : createDirect(size, format);
+	}
+
+	/**
+	 * Creates a Tessellator that never grows past its capacity, but rather than refusing more vertices
+	 * once full, draws everything it holds with its current mode and carries on. Only whole primitives are drawn.
+	 *
+	 * @param size the capacity of this Tessellator, in whole vertices
+	 * @param mode the OpenGL mode to draw with whenever this Tessellator fills up
+	 * @return the requested Flushing Tessellator
+	 */
+	static Tessellator createFlushing(int size, int mode) {
+		return new FlushingTess(size, mode);
+	}
+
+	/**
+	 * Creates a Flushing Tessellator whose buffer fits within 64 KB. See above.
+	 *
+	 * @param mode the OpenGL mode to draw with whenever this Tessellator fills up
+	 * @return the requested Flushing Tessellator
+	 */
+	static Tessellator createFlushing(int mode) {
+		return createFlushing(FlushingTess.DEFAULT_CAPACITY, mode);
+	}
+
+	/**
+	 * Creates a growing Tessellator that will increase in capacity as its limit is reached.
+	 * Its memory is left to the garbage collector.
 	 *
 	 * @param size the initial capacity of this Tessellator
 	 * @param ratio   The target ratio, between 0 and 1.0, that this Tessellator must hit before it grows.
 	 * @param factor  The factor of which this Tessellator will grow when it hits the ratio.
-	 * @return the requested Basic Tessellator
+	 * @return the requested Expanding Tessellator
 	 */
 	static Tessellator createExpanding(int size, float ratio, float factor) {
 		return new ExpandingTess(size, ratio, factor);
 	}
+
+	/**
+	 * Creates a growing Tessellator that will increase in capacity as its limit is reached, resized in place in
+	 * native memory, and shrink back down after the given number of resets in a row without needing that capacity.
+	 * Its native memory must be freed with delete() once you're done with it.
+	 *
+	 * @param size   the initial capacity of this Tessellator
+	 * @param ratio  The target ratio, between 0 and 1.0, that this Tessellator must hit before it grows.
+	 * @param factor The factor of which this Tessellator will grow when it hits the ratio.
+	 * @param decay  The number of consecutive low-usage resets after which this Tessellator shrinks, or 0 to never shrink.
+	 * @return the requested Expanding Tessellator
+	 */
+	static ExpandingTess createExpanding(int size, float ratio, float factor, int decay) {
+		return new ExpandingTess(size, ratio, factor, decay);
+	}
+
+	/**
+	 * Creates a growing Direct Tessellator that lays its vertices out in the format provided,
+	 * doubling its capacity in place in native memory whenever it runs out.
+	 * Its native memory must be freed with delete() once you're done with it.
+	 *
+	 * @param size   the initial capacity of this Tessellator
+	 * @param format the layout of every vertex this Tessellator will write
+	 * @return the requested Expanding Direct Tessellator
+	 */
+	static Tessellator createExpanding(int size, VertexFormat format) {
+		return new ExpandingDirectTess(size, format);
+	}
 }
\ No newline at end of file
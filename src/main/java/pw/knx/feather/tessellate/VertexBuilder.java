@@ -0,0 +1,270 @@
+package pw.knx.feather.tessellate;
+
+import pw.knx.feather.structures.Color;
+
+import java.util.Arrays;
+
+import static pw.knx.feather.Feather.FEATHER;
+
+/**
+ * A Tessellator-like vertex builder that never touches OpenGL, so it can be filled on any thread.
+ * <p>
+ * Vertices are entered just like they are into a Tessellator, and draw() closes off everything entered
+ * since the last draw() as a segment, along with its mode, the texture bound through bindTexture(), and
+ * the blending set through setBlendState().
+ * Nothing is actually drawn until the builder is replayed on the OpenGL thread, which enters each segment
+ * into a real Tessellator in one bulk call and draws it, in the order the segments were recorded.
+ * <p>
+ * Builders are not thread-safe themselves. Fill each builder from a single thread (one per widget subtree,
+ * for example, through a ForkJoinPool), and hand it to the OpenGL thread through something that guarantees
+ * its contents are visible there, such as joining the task that filled it.
+ * <p>
+ * Vertices are stored exactly as Tessellator.addVertices() expects them: x, y, z, color, u, v.
+ * Vertices entered without a color are white.
+ * <p>
+ * The voids in this class return the Vertex Builder object for easy method chaining.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 16:48
+ */
+public class VertexBuilder {
+
+	/**
+	 * The number of integers each vertex takes up
+	 */
+	private static final int VERTEX = 6;
+
+	/**
+	 * Every vertex entered, packed as described above
+	 */
+	private int[] vertices;
+
+	/**
+	 * The number of vertices entered
+	 */
+	private int index;
+
+	/**
+	 * The color of the upcoming vertex
+	 */
+	private int color = 0xFFFFFFFF;
+
+	/**
+	 * The texture coordinates of the upcoming vertex
+	 */
+	private float texU, texV;
+
+	/**
+	 * The texture and blending state the upcoming segments are drawn with, or -1 to leave either alone
+	 */
+	private int texture = -1, blend = -1;
+
+	/**
+	 * The mode, texture, blending state, and first vertex of every segment. Each segment lasts until the first vertex of the next.
+	 */
+	private int[] modes = new int[8], textures = new int[8], blends = new int[8], starts = new int[8];
+
+	/**
+	 * The number of segments, and the first vertex not yet part of one
+	 */
+	private int segments, start;
+
+	/**
+	 * Constructs a Vertex Builder. It grows as needed.
+	 *
+	 * @param capacity The initial capacity, in vertices
+	 */
+	public VertexBuilder(int capacity) {
+		this.vertices = new int[Math.max(capacity, 4) * VERTEX];
+	}
+
+	/**
+	 * Constructs a Vertex Builder with room for 256 quads to start with.
+	 */
+	public VertexBuilder() {
+		this(1024);
+	}
+
+	/**
+	 * @param color The color to associate the upcoming vertices with, in the same format as Tessellator.setColor()
+	 * @return The original Vertex Builder
+	 */
+	public VertexBuilder setColor(int color) {
+		this.color = color;
+		return this;
+	}
+
+	/**
+	 * @param color The color to associate the upcoming vertices with
+	 * @return The original Vertex Builder
+	 */
+	public VertexBuilder setColor(Color color) {
+		return setColor(color.getHex(Color.HexFormat.ABGR));
+	}
+
+	/**
+	 * @param u The horizontal texture coordinate of the upcoming vertices
+	 * @param v The vertical texture coordinate of the upcoming vertices
+	 * @return The original Vertex Builder
+	 */
+	public VertexBuilder setTexture(float u, float v) {
+		this.texU = u;
+		this.texV = v;
+		return this;
+	}
+
+	/**
+	 * Enters a vertex, with the current color and texture coordinates.
+	 *
+	 * @param x The x coordinate of this vertex
+	 * @param y The y coordinate of this vertex
+	 * @param z The z coordinate of this vertex
+	 * @return The original Vertex Builder
+	 */
+	public VertexBuilder addVertex(float x, float y, float z) {
+		ensure(1);
+		put(x, y, z, this.texU, this.texV);
+		return this;
+	}
+
+	/**
+	 * Enters an entire textured quad, just like Tessellator.addQuad().
+	 *
+	 * @return The original Vertex Builder
+	 */
+	public VertexBuilder addQuad(float x1, float y1, float x2, float y2, float u, float v, float u1, float v1) {
+		ensure(4);
+		put(x1, y1, 0, u, v);
+		put(x1, y2, 0, u, v1);
+		put(x2, y2, 0, u1, v1);
+		put(x2, y1, 0, u1, v);
+		this.texU = u1;
+		this.texV = v;
+		return this;
+	}
+
+	/**
+	 * Enters an entire textured, colored quad, just like Tessellator.addQuad().
+	 *
+	 * @return The original Vertex Builder
+	 */
+	public VertexBuilder addQuad(float x1, float y1, float x2, float y2, float u, float v, float u1, float v1, int color) {
+		return setColor(color).addQuad(x1, y1, x2, y2, u, v, u1, v1);
+	}
+
+	/**
+	 * Sets the texture the upcoming segments are drawn with. Recorded, not bound.
+	 *
+	 * @param texture The OpenGL ID of the texture, or -1 to leave whichever texture is bound alone
+	 * @return The original Vertex Builder
+	 */
+	public VertexBuilder bindTexture(int texture) {
+		this.texture = texture;
+		return this;
+	}
+
+	/**
+	 * Sets the blending the upcoming segments are drawn with. Recorded, not applied.
+	 *
+	 * @param blend The blending state, packed as by Feather.blendState(), or -1 to leave blending alone
+	 * @return The original Vertex Builder
+	 */
+	public VertexBuilder setBlendState(int blend) {
+		this.blend = blend;
+		return this;
+	}
+
+	/**
+	 * Closes off every vertex entered since the last segment as a new segment, to be drawn with the given mode.
+	 * Nothing is drawn until the builder is replayed.
+	 *
+	 * @param mode The OpenGL mode to draw the segment with
+	 * @return The original Vertex Builder
+	 */
+	public VertexBuilder draw(int mode) {
+		if (this.index == this.start)
+			return this;
+		if (this.segments == this.modes.length) {
+			this.modes = Arrays.copyOf(this.modes, this.segments * 2);
+			this.textures = Arrays.copyOf(this.textures, this.segments * 2);
+			this.blends = Arrays.copyOf(this.blends, this.segments * 2);
+			this.starts = Arrays.copyOf(this.starts, this.segments * 2);
+		}
+		this.modes[this.segments] = mode;
+		this.textures[this.segments] = this.texture;
+		this.blends[this.segments] = this.blend;
+		this.starts[this.segments++] = this.start;
+		this.start = this.index;
+		return this;
+	}
+
+	/**
+	 * Draws every segment through the given Tessellator, in the order they were recorded.
+	 * Must be called on the OpenGL thread. The builder's contents are left alone, so you'll likely want to reset() it afterwards.
+	 *
+	 * @param tess The Tessellator to draw through, which should be empty
+	 * @return The original Vertex Builder
+	 */
+	public VertexBuilder replay(Tessellator tess) {
+		for (int segment = 0; segment < this.segments; segment++) {
+			final int first = this.starts[segment];
+			final int end = segment + 1 < this.segments ? this.starts[segment + 1] : this.start;
+			if (this.textures[segment] != -1)
+				FEATHER.bindTexture(this.textures[segment]).setDistanceField(FEATHER.isDistanceField(this.textures[segment]));
+			FEATHER.setBlendState(this.blends[segment]);
+			tess.addVertices(this.vertices, first * VERTEX, end - first).draw(this.modes[segment]);
+		}
+		FEATHER.setDistanceField(false);
+		return this;
+	}
+
+	/**
+	 * Empties the builder, so it can be filled again. Its capacity is kept.
+	 *
+	 * @return The original Vertex Builder
+	 */
+	public VertexBuilder reset() {
+		this.index = this.start = this.segments = 0;
+		this.texture = this.blend = -1;
+		return this;
+	}
+
+	/**
+	 * @return the number of vertices entered
+	 */
+	public int count() {
+		return this.index;
+	}
+
+	/**
+	 * @return the number of segments recorded
+	 */
+	public int segments() {
+		return this.segments;
+	}
+
+	/**
+	 * Makes sure there's room for the given number of vertices, growing if there isn't.
+	 *
+	 * @param vertices the number of vertices about to be entered
+	 */
+	private void ensure(int vertices) {
+		final int needed = (this.index + vertices) * VERTEX;
+		if (needed > this.vertices.length)
+			this.vertices = Arrays.copyOf(this.vertices, Math.max(needed, this.vertices.length * 2));
+	}
+
+	/**
+	 * Packs a single vertex, with the current color.
+	 */
+	private void put(float x, float y, float z, float u, float v) {
+		final int[] vertices = this.vertices;
+		final int dex = this.index++ * VERTEX;
+		vertices[dex] = Float.floatToRawIntBits(x);
+		vertices[dex + 1] = Float.floatToRawIntBits(y);
+		vertices[dex + 2] = Float.floatToRawIntBits(z);
+		vertices[dex + 3] = this.color;
+		vertices[dex + 4] = Float.floatToRawIntBits(u);
+		vertices[dex + 5] = Float.floatToRawIntBits(v);
+	}
+}
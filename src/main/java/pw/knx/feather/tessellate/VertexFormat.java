@@ -0,0 +1,577 @@
+package pw.knx.feather.tessellate;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+
+import pw.knx.feather.Feather;
+import pw.knx.feather.structures.Shading;
+
+import java.util.Arrays;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static pw.knx.feather.Feather.FEATHER;
+
+/**
+ * A description of the layout of a single vertex within a Tessellator's buffer.
+ * <p>
+ * Every vertex has a position, either 2D or 3D. Color, texture coordinates, normals, and any
+ * number of custom (generic) attributes may optionally follow. The Tessellator only pays for the
+ * attributes in its format, so a flat-colored 2D rectangle can be drawn with 12 bytes per vertex
+ * rather than the 24 bytes the Basic Tessellator always uses.
+ * <p>
+ * Formats are immutable. Each of the builder methods returns a new format with the requested attribute
+ * appended, so they can be chained intuitively:
+ * VertexFormat.position2D().color();
+ * <p>
+ * Positions, texture coordinates, normals, and custom attributes may each be stored in a compressed Type
+ * rather than as floats. Pixel positions and atlas coordinates fit comfortably within 16 bits, so a 2D sprite
+ * or glyph vertex can be cut from 24 bytes to 12 (see COMPACT_2D). Every attribute is padded to a multiple of
+ * four bytes to keep the next one aligned.
+ * <p>
+ * Custom attributes are pushed down the pipeline as generic vertex attributes, starting at
+ * location 4. Locations 0 through 3 are reserved for the position, color, texture, and normal, which are
+ * pushed to those locations as generic vertex attributes themselves on Feather's core backend.
+ *
+ * @author KNOXDEV
+ * @since 10/16/2026 10:58
+ */
+public class VertexFormat {
+
+	/**
+	 * The layout used by the Basic Tessellator: three position floats, one ABGR color integer, and two texture floats.
+	 */
+	public static final VertexFormat DEFAULT = position3D().color().texture();
+
+	/**
+	 * A 12 byte layout for 2D sprites and glyphs: two position shorts, one ABGR color integer, and two half float texture
+	 * coordinates. Positions are rounded to whole pixels. Requires OpenGL 3.0 (or ARB_half_float_vertex).
+	 */
+	public static final VertexFormat COMPACT_2D = position2D(Type.SHORT).color().texture(Type.HALF_FLOAT);
+
+	/**
+	 * The attribute location the first custom attribute is assigned to
+	 */
+	static final int GENERIC_LOCATION = 4;
+
+	/**
+	 * What a vertex attribute is used for, which determines how it is pushed down the pipeline.
+	 */
+	public enum Usage {
+		POSITION, COLOR, TEXTURE, NORMAL, GENERIC
+	}
+
+	/**
+	 * How each component of an attribute is stored within the vertex.
+	 */
+	public enum Type {
+		/**
+		 * A full 32-bit float
+		 */
+		FLOAT(GL11.GL_FLOAT, 4, false),
+
+		/**
+		 * A 16-bit IEEE half float, good for values near 0-1.0 such as texture coordinates
+		 */
+		HALF_FLOAT(GL30.GL_HALF_FLOAT, 2, false),
+
+		/**
+		 * A signed 16-bit integer, rounded from the float given. Good for whole pixel positions.
+		 */
+		SHORT(GL11.GL_SHORT, 2, false),
+
+		/**
+		 * An unsigned 16-bit integer mapping 0-65535 onto 0-1.0. Only usable by shader-based pipelines,
+		 * as fixed-function OpenGL cannot normalize vertex, texture, or normal data.
+		 */
+		NORMALIZED_SHORT(GL11.GL_UNSIGNED_SHORT, 2, true);
+
+		/**
+		 * The OpenGL type this component is pushed down the pipeline as
+		 */
+		public final int glType;
+
+		/**
+		 * The number of bytes in a single component of this type
+		 */
+		public final int bytes;
+
+		/**
+		 * Whether OpenGL should map this integer type onto 0-1.0
+		 */
+		public final boolean normalized;
+
+		Type(int glType, int bytes, boolean normalized) {
+			this.glType = glType;
+			this.bytes = bytes;
+			this.normalized = normalized;
+		}
+
+		/**
+		 * Writes a single component of this type into native memory.
+		 *
+		 * @param address the native address to write to
+		 * @param value   the value of the component
+		 */
+		void put(long address, float value) {
+			switch (this) {
+				case FLOAT:
+					memPutFloat(address, value);
+					break;
+				case HALF_FLOAT:
+					memPutShort(address, half(value));
+					break;
+				case SHORT:
+					memPutShort(address, (short) Math.round(value));
+					break;
+				case NORMALIZED_SHORT:
+					memPutShort(address, (short) Math.round(Math.min(Math.max(value, 0), 1) * 0xFFFF));
+					break;
+			}
+		}
+	}
+
+	/**
+	 * A single attribute of the vertex, and where it can be found within the vertex.
+	 */
+	public static class Attribute {
+
+		/**
+		 * What this attribute is used for
+		 */
+		public final Usage usage;
+
+		/**
+		 * The number of components in this attribute
+		 */
+		public final int size;
+
+		/**
+		 * How each component in this attribute is stored, or null for the 4-byte color
+		 */
+		public final Type type;
+
+		/**
+		 * The offset, in bytes, of this attribute from the start of the vertex
+		 */
+		public final int offset;
+
+		Attribute(Usage usage, int size, Type type, int offset) {
+			this.usage = usage;
+			this.size = size;
+			this.type = type;
+			this.offset = offset;
+		}
+
+		/**
+		 * @return the OpenGL type of each component in this attribute
+		 */
+		public int glType() {
+			return this.type == null ? GL11.GL_UNSIGNED_BYTE : this.type.glType;
+		}
+
+		/**
+		 * @return whether each component in this attribute is normalized when read as a float
+		 */
+		public boolean normalized() {
+			return this.type == null || this.type.normalized;
+		}
+
+		/**
+		 * @return the number of bytes this attribute takes up within the vertex, padded to a multiple of four
+		 */
+		public int bytes() {
+			return this.type == null ? 4 : (this.size * this.type.bytes + 3) & ~3;
+		}
+
+		/**
+		 * Writes up to four components of this attribute into native memory.
+		 *
+		 * @param vertex the native address of the vertex to write into
+		 */
+		void put(long vertex, float x, float y, float z, float w) {
+			final long dex = vertex + this.offset;
+			final int bytes = this.type.bytes;
+			this.type.put(dex, x);
+			if (this.size > 1)
+				this.type.put(dex + bytes, y);
+			if (this.size > 2)
+				this.type.put(dex + bytes * 2, z);
+			if (this.size > 3)
+				this.type.put(dex + bytes * 3, w);
+		}
+	}
+
+	/**
+	 * Every attribute of this format, in the order they're laid out
+	 */
+	private final Attribute[] attributes;
+
+	/**
+	 * Quick references to the named attributes, or null if this format does not include them
+	 */
+	final Attribute position, color, texture, normal;
+
+	/**
+	 * Every custom attribute of this format, in the order they were added
+	 */
+	final Attribute[] generics;
+
+	/**
+	 * The size, in bytes, of a single vertex in this format
+	 */
+	public final int stride;
+
+	/**
+	 * Whether this format lays vertices out exactly as the Basic Tessellator does: x, y, z, color, u, v, as floats
+	 * bar the color. Vertices in this layout can be written without consulting each attribute.
+	 */
+	final boolean basic;
+
+	private VertexFormat(Attribute[] attributes) {
+		this.attributes = attributes;
+		Attribute position = null, color = null, texture = null, normal = null;
+		int generics = 0, stride = 0;
+		for (Attribute attribute : attributes) {
+			switch (attribute.usage) {
+				case POSITION:
+					position = attribute;
+					break;
+				case COLOR:
+					color = attribute;
+					break;
+				case TEXTURE:
+					texture = attribute;
+					break;
+				case NORMAL:
+					normal = attribute;
+					break;
+				case GENERIC:
+					generics++;
+					break;
+			}
+			stride += attribute.bytes();
+		}
+		this.position = position;
+		this.color = color;
+		this.texture = texture;
+		this.normal = normal;
+		this.stride = stride;
+		this.generics = new Attribute[generics];
+		generics = 0;
+		for (Attribute attribute : attributes)
+			if (attribute.usage == Usage.GENERIC)
+				this.generics[generics++] = attribute;
+		this.basic = attributes.length == 3 && position != null && position.size == 3 && position.type == Type.FLOAT
+				&& position.offset == 0 && color != null && color.offset == 12
+				&& texture != null && texture.size == 2 && texture.type == Type.FLOAT && texture.offset == 16;
+	}
+
+
+	/*
+	 * Builders - Each returns a new format with the requested attribute appended
+	 */
+
+	/**
+	 * @return a format with a 4-byte ABGR color appended
+	 */
+	public VertexFormat color() {
+		return with(Usage.COLOR, 4, null);
+	}
+
+	/**
+	 * @return a format with a pair of floating point texture coordinates appended
+	 */
+	public VertexFormat texture() {
+		return texture(Type.FLOAT);
+	}
+
+	/**
+	 * @param type how each texture coordinate is stored
+	 * @return a format with a pair of texture coordinates appended
+	 */
+	public VertexFormat texture(Type type) {
+		return with(Usage.TEXTURE, 2, type);
+	}
+
+	/**
+	 * @return a format with a three-component floating point normal appended
+	 */
+	public VertexFormat normal() {
+		return normal(Type.FLOAT);
+	}
+
+	/**
+	 * @param type how each component of the normal is stored
+	 * @return a format with a three-component normal appended
+	 */
+	public VertexFormat normal(Type type) {
+		return with(Usage.NORMAL, 3, type);
+	}
+
+	/**
+	 * @param size the number of floats, from 1 to 4, in the custom attribute
+	 * @return a format with a custom floating point attribute appended
+	 */
+	public VertexFormat attribute(int size) {
+		return attribute(size, Type.FLOAT);
+	}
+
+	/**
+	 * @param size the number of components, from 1 to 4, in the custom attribute
+	 * @param type how each component of the custom attribute is stored
+	 * @return a format with a custom attribute appended
+	 */
+	public VertexFormat attribute(int size, Type type) {
+		if (size < 1 || size > 4)
+			throw new IllegalArgumentException("Custom attributes must have between 1 and 4 components");
+		return with(Usage.GENERIC, size, type);
+	}
+
+	/**
+	 * @param usage what the appended attribute is used for
+	 * @param size  the number of components in the appended attribute
+	 * @param type  how each component in the appended attribute is stored
+	 * @return a format with the requested attribute appended
+	 */
+	private VertexFormat with(Usage usage, int size, Type type) {
+		if (usage != Usage.GENERIC)
+			for (Attribute attribute : this.attributes)
+				if (attribute.usage == usage)
+					throw new IllegalStateException("A vertex format may only contain one " + usage + " attribute");
+		final Attribute[] attributes = Arrays.copyOf(this.attributes, this.attributes.length + 1);
+		attributes[this.attributes.length] = new Attribute(usage, size, type, this.stride);
+		return new VertexFormat(attributes);
+	}
+
+
+	/*
+	 * Render Commands
+	 */
+
+	/**
+	 * Points OpenGL at the vertex data found at the given pointer, one attribute at a time.
+	 * With no buffer object bound, the pointer is a native address. With a buffer object bound,
+	 * it's an offset into that buffer object.
+	 * <p>
+	 * On the legacy backend, the color and texture pointers are only pushed if the Tessellator was actually given
+	 * color or texture data, so stale data is never pushed down the pipeline. On the core backend, every attribute
+	 * is pushed as a generic attribute, at its reserved location, and arrays() decides which are actually read.
+	 *
+	 * @param pointer the address or buffer offset of the first vertex
+	 * @param color   whether color data has been entered
+	 * @param texture whether texture data has been entered
+	 */
+	public void pointers(long pointer, boolean color, boolean texture) {
+		final boolean core = FEATHER.backend() == Feather.Backend.CORE;
+		int generic = GENERIC_LOCATION;
+		for (Attribute attribute : this.attributes) {
+			final long at = pointer + attribute.offset;
+			if (core || attribute.usage == Usage.GENERIC) {
+				final int location = attribute.usage == Usage.GENERIC ? generic++ : attribute.usage.ordinal();
+				GL20.glVertexAttribPointer(location, attribute.size, attribute.glType(), attribute.normalized(),
+						this.stride, at);
+				continue;
+			}
+			if (attribute.type != null && attribute.type.normalized)
+				throw new IllegalStateException("Fixed-function OpenGL cannot push normalized " + attribute.usage + " data");
+			switch (attribute.usage) {
+				case POSITION:
+					GL11.glVertexPointer(attribute.size, attribute.glType(), this.stride, at);
+					break;
+				case COLOR:
+					if (color)
+						GL11.glColorPointer(attribute.size, attribute.glType(), this.stride, at);
+					break;
+				case TEXTURE:
+					if (texture)
+						GL11.glTexCoordPointer(attribute.size, attribute.glType(), this.stride, at);
+					break;
+				case NORMAL:
+					GL11.glNormalPointer(attribute.glType(), this.stride, at);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Enables (or disables) the client states and generic attribute arrays for every attribute of this format.
+	 * The color and texture arrays are only touched if the Tessellator was actually given color or texture data.
+	 *
+	 * @param enable  whether to enable or disable the arrays
+	 * @param color   whether color data has been entered
+	 * @param texture whether texture data has been entered
+	 */
+	public void arrays(boolean enable, boolean color, boolean texture) {
+		if (FEATHER.backend() == Feather.Backend.CORE) {
+			final int locations = locations(color, texture);
+			for (int location = 0; location < 32; location++) {
+				if ((locations & 1 << location) == 0)
+					continue;
+				if (enable)
+					GL20.glEnableVertexAttribArray(location);
+				else
+					GL20.glDisableVertexAttribArray(location);
+			}
+			whiten(color);
+			return;
+		}
+		int generic = GENERIC_LOCATION;
+		for (Attribute attribute : this.attributes) {
+			switch (attribute.usage) {
+				case POSITION:
+					clientState(GL11.GL_VERTEX_ARRAY, enable);
+					break;
+				case COLOR:
+					if (color)
+						clientState(GL11.GL_COLOR_ARRAY, enable);
+					break;
+				case TEXTURE:
+					if (texture)
+						clientState(GL11.GL_TEXTURE_COORD_ARRAY, enable);
+					break;
+				case NORMAL:
+					clientState(GL11.GL_NORMAL_ARRAY, enable);
+					break;
+				case GENERIC:
+					if (enable)
+						GL20.glEnableVertexAttribArray(generic++);
+					else
+						GL20.glDisableVertexAttribArray(generic++);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Everything a Tessellator needs before drawing: points OpenGL at the vertex data found at the given pointer.
+	 * On the core backend, this also enables exactly the attribute arrays this format needs within Feather's
+	 * vertex array object, and makes the matching built-in shader program active. On the legacy backend,
+	 * the client states are left to the caller, as they always have been.
+	 *
+	 * @param pointer the address or buffer offset of the first vertex
+	 * @param color   whether color data has been entered
+	 * @param texture whether texture data has been entered
+	 */
+	public void bind(long pointer, boolean color, boolean texture) {
+		pointers(pointer, color, texture);
+		if (FEATHER.backend() == Feather.Backend.CORE) {
+			FEATHER.enableAttributes(locations(color, texture));
+			whiten(color);
+			(texture ? FEATHER.textureShading() : Shading.COLORED).use();
+		}
+	}
+
+	/**
+	 * @param color   whether color data has been entered
+	 * @param texture whether texture data has been entered
+	 * @return a mask with one bit set for the location of every generic attribute array the core backend reads
+	 */
+	public int locations(boolean color, boolean texture) {
+		int locations = 0, generic = GENERIC_LOCATION;
+		for (Attribute attribute : this.attributes) {
+			switch (attribute.usage) {
+				case COLOR:
+					if (color)
+						locations |= 1 << attribute.usage.ordinal();
+					break;
+				case TEXTURE:
+					if (texture)
+						locations |= 1 << attribute.usage.ordinal();
+					break;
+				case GENERIC:
+					locations |= 1 << generic++;
+					break;
+				default:
+					locations |= 1 << attribute.usage.ordinal();
+			}
+		}
+		return locations;
+	}
+
+	/**
+	 * Without color data, the core backend's programs read the color attribute's current value rather than an array.
+	 * Fixed-function OpenGL would use the current color instead, which the core profile no longer has, so use white.
+	 *
+	 * @param color whether color data has been entered
+	 */
+	private static void whiten(boolean color) {
+		if (!color)
+			GL20.glVertexAttrib4f(Usage.COLOR.ordinal(), 1, 1, 1, 1);
+	}
+
+	/**
+	 * @param array  the client state array to enable or disable
+	 * @param enable whether to enable or disable it
+	 */
+	private static void clientState(int array, boolean enable) {
+		FEATHER.clientState(array, enable);
+	}
+
+
+	/*
+	 * Static Constructors
+	 */
+
+	/**
+	 * @return a format containing nothing but a 2D floating point position
+	 */
+	public static VertexFormat position2D() {
+		return position2D(Type.FLOAT);
+	}
+
+	/**
+	 * @param type how each component of the position is stored
+	 * @return a format containing nothing but a 2D position
+	 */
+	public static VertexFormat position2D(Type type) {
+		return new VertexFormat(new Attribute[]{new Attribute(Usage.POSITION, 2, type, 0)});
+	}
+
+	/**
+	 * @return a format containing nothing but a 3D floating point position
+	 */
+	public static VertexFormat position3D() {
+		return position3D(Type.FLOAT);
+	}
+
+	/**
+	 * @param type how each component of the position is stored
+	 * @return a format containing nothing but a 3D position
+	 */
+	public static VertexFormat position3D(Type type) {
+		return new VertexFormat(new Attribute[]{new Attribute(Usage.POSITION, 3, type, 0)});
+	}
+
+
+	/*
+	 * Conversion Utilities
+	 */
+
+	/**
+	 * Converts a float into the bits of an IEEE 754 half float, rounding to the nearest representable value.
+	 * Values too large for a half float become infinity, and values too small become (signed) zero.
+	 *
+	 * @param value the float to convert
+	 * @return the 16 bits of the equivalent half float
+	 */
+	static short half(float value) {
+		final int bits = Float.floatToRawIntBits(value);
+		final int sign = (bits >>> 16) & 0x8000;        // the sign bit, moved into place
+		final int abs = bits & 0x7FFFFFFF;
+		final int rounded = abs + 0x1000;               // round the 13 bits we're about to discard
+
+		if (abs >= 0x7F800000)                          // NaN or infinity, keep the NaN-ness
+			return (short) (sign | 0x7C00 | (abs > 0x7F800000 ? 0x200 : 0));
+		if (rounded >= 0x47800000)                      // too large for a half float, so infinity
+			return (short) (sign | 0x7C00);
+		if (rounded >= 0x38800000)                      // a normal half float, rebias the exponent
+			return (short) (sign | (rounded - 0x38000000) >>> 13);
+		if (abs < 0x33000000)                           // too small for even a subnormal half float
+			return (short) sign;
+
+		/* A subnormal half float: shift the mantissa (with its implicit bit) right according to the exponent */
+		final int exponent = abs >>> 23;
+		return (short) (sign | ((abs & 0x7FFFFF | 0x800000) + (0x800000 >>> exponent - 102) >>> 126 - exponent));
+	}
+}
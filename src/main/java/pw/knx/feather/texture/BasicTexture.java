@@ -1,5 +1,6 @@
 package pw.knx.feather.texture;
 
+import org.lwjgl.opengl.GL11;
 import pw.knx.feather.tessellate.Tessellator;
 
 import static pw.knx.feather.Feather.FEATHER;
@@ -36,6 +37,7 @@ public class BasicTexture implements Texture {
 
 	/**
 	 * Draws the texture using standard Tessellator proceedure.
+	 * While Feather is batching, quads are queued in its Frame Batch instead.
 	 *
 	 * @param tess The Tessellator Object you wish to use to render this texture
 	 * @param mode The OpenGL mode ID you wish to use to render this texture
@@ -45,9 +47,15 @@ public class BasicTexture implements Texture {
 	 */
 	@Override
 	public Texture draw(Tessellator tess, int mode, float x, float y) {
-		tess.setTexture(u1, v).addVertex(x + width, y, 0).setTexture(u, v).addVertex(x, y, 0);
-		tess.setTexture(u, v1).addVertex(x, y + height, 0).setTexture(u1, v1).addVertex(x + width, y + height, 0);
-		tess.draw(mode);
+		if (mode == GL11.GL_QUADS && FEATHER.batching()) {
+			FEATHER.queueQuad(texID, x, y, x + width, y + height, u, v, u1, v1);
+		} else if (mode == GL11.GL_QUADS) {
+			tess.addQuad(x, y, x + width, y + height, u, v, u1, v1).draw(mode);
+		} else {                                    // addQuad()'s corner order only suits quads, so keep ours for strips and the like.
+			tess.setTexture(u1, v).addVertex(x + width, y, 0).setTexture(u, v).addVertex(x, y, 0);
+			tess.setTexture(u, v1).addVertex(x, y + height, 0).setTexture(u1, v1).addVertex(x + width, y + height, 0);
+			tess.draw(mode);
+		}
 		return this;
 	}
 